@@ -0,0 +1,161 @@
+package com.courseregistration.benchmark;
+
+import com.courseregistration.CourseRegistrationSystemApplication;
+import com.courseregistration.model.Registration;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.model.Student;
+import com.courseregistration.model.Subject;
+import com.courseregistration.readmodel.ReadModel;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+// Boots the application once per trial against a private in-memory H2 database and seeds it.
+// Volumes are JMH parameters, e.g. -p students=10000 -p subjects=1000 -p registrationsPerStudent=8.
+// The read model is off by default so the read benchmarks measure the database; -p readModel=true
+// serves them from the projection instead
+@State(Scope.Benchmark)
+public class ApplicationState {
+    
+    private static final int FLUSH_INTERVAL = 500;
+    
+    @Param("1000")
+    public int students;
+    
+    @Param("200")
+    public int subjects;
+    
+    @Param("5")
+    public int registrationsPerStudent;
+    
+    @Param("false")
+    public boolean readModel;
+    
+    private ConfigurableApplicationContext context;
+    private Path eventLogDir;
+    private final List<String> studentIds = new ArrayList<>();
+    private final List<String> openSubjectIds = new ArrayList<>();
+    
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        // The first half of the subjects carries the seeded registrations, the second half stays open
+        int enrolledSubjects = subjects / 2;
+        if (subjects < 2 || subjects > BenchmarkFixtures.MAX_SUBJECTS) {
+            throw new IllegalArgumentException("subjects must be between 2 and " + BenchmarkFixtures.MAX_SUBJECTS);
+        }
+        if (registrationsPerStudent < 0 || registrationsPerStudent > enrolledSubjects) {
+            throw new IllegalArgumentException("registrationsPerStudent must be between 0 and " + enrolledSubjects);
+        }
+        
+        // Passed as arguments so they take precedence over application.yml. Random ports and a private
+        // event log let a trial run next to a running instance
+        eventLogDir = Files.createTempDirectory("benchmark-events");
+        context = new SpringApplicationBuilder(CourseRegistrationSystemApplication.class)
+                .run("--server.port=0",
+                        "--app.reactive.port=0",
+                        "--app.outbox.log-dir=" + eventLogDir,
+                        "--app.read-model.enabled=" + readModel,
+                        "--spring.main.banner-mode=off",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.h2.console.enabled=false",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.courseregistration=WARN",
+                        "--logging.level.org.springframework.security=WARN");
+        seed(enrolledSubjects);
+        // The seed bypasses the services, so the projection built at startup has not seen it
+        context.getBean(ReadModel.class).rebuild();
+    }
+    
+    @TearDown(Level.Trial)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+        if (eventLogDir != null) {
+            FileSystemUtils.deleteRecursively(eventLogDir.toFile());
+        }
+    }
+    
+    public <T> T getBean(Class<T> type) {
+        return context.getBean(type);
+    }
+    
+    public List<String> getStudentIds() {
+        return studentIds;
+    }
+    
+    // Open subjects without prerequisites, so every seeded student can register for them
+    public List<String> getOpenSubjectIds() {
+        return openSubjectIds;
+    }
+    
+    private void seed(int enrolledSubjects) {
+        EntityManagerFactory entityManagerFactory = context.getBean(EntityManagerFactory.class);
+        
+        List<Subject> subjectRows = new ArrayList<>();
+        int[] enrollment = new int[subjects];
+        for (int s = 0; s < students; s++) {
+            for (int k = 1; k < registrationsPerStudent; k++) {
+                enrollment[(s + k) % enrolledSubjects]++;
+            }
+        }
+        for (int i = 0; i < subjects; i++) {
+            Subject subject = BenchmarkFixtures.subject(i, students * 2 + 10);
+            subject.setCurrentEnrollment(enrollment[i]);
+            subjectRows.add(subject);
+            if (i >= enrolledSubjects && !subject.hasPrerequisite()) {
+                openSubjectIds.add(subject.getSubjectId());
+            }
+        }
+        persistAll(entityManagerFactory, subjectRows);
+        
+        List<Object> rows = new ArrayList<>();
+        for (int s = 0; s < students; s++) {
+            Student student = BenchmarkFixtures.student(s);
+            studentIds.add(student.getStudentId());
+            rows.add(student);
+            // The first registration of each student is completed so prerequisites are satisfied for some subjects
+            for (int k = 0; k < registrationsPerStudent; k++) {
+                Subject subject = subjectRows.get((s + k) % enrolledSubjects);
+                Registration registration = BenchmarkFixtures.registration(student, subject,
+                        k == 0 ? RegistrationStatus.COMPLETED : RegistrationStatus.ACTIVE);
+                rows.add(registration);
+            }
+        }
+        persistAll(entityManagerFactory, rows);
+    }
+    
+    // Persists in chunks on a private entity manager so inserts are batched and memory stays flat
+    private void persistAll(EntityManagerFactory entityManagerFactory, List<?> rows) {
+        EntityManager entityManager = entityManagerFactory.createEntityManager();
+        try {
+            for (int from = 0; from < rows.size(); from += FLUSH_INTERVAL) {
+                List<?> chunk = rows.subList(from, Math.min(from + FLUSH_INTERVAL, rows.size()));
+                entityManager.getTransaction().begin();
+                for (Object row : chunk) {
+                    entityManager.persist(row);
+                }
+                entityManager.getTransaction().commit();
+                entityManager.clear();
+            }
+        } finally {
+            entityManager.close();
+        }
+    }
+}
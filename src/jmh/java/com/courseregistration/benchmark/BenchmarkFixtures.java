@@ -0,0 +1,53 @@
+package com.courseregistration.benchmark;
+
+import com.courseregistration.model.Registration;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.model.Student;
+import com.courseregistration.model.Subject;
+
+import java.time.LocalDate;
+
+// Deterministic entities for benchmarks. IDs are offset so they never collide with the DataInitializer sample data.
+public final class BenchmarkFixtures {
+    
+    public static final int MAX_SUBJECTS = 5000;
+    
+    private static final int STUDENT_ID_BASE = 69100000;
+    private static final int SUBJECT_ID_BASE = 5000;
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Mike", "Sarah", "David", "Emma", "Liam", "Olivia"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Johnson", "Wilson", "Brown", "Davis", "Miller", "Taylor"};
+    private static final String[] SCHOOLS = {"Springfield High School", "Lincoln High School", "Washington High School"};
+    
+    private BenchmarkFixtures() {}
+    
+    public static String studentId(int index) {
+        return String.valueOf(STUDENT_ID_BASE + index);
+    }
+    
+    public static String subjectId(int index) {
+        return String.format("0550%04d", SUBJECT_ID_BASE + index);
+    }
+    
+    public static Student student(int index) {
+        String firstName = FIRST_NAMES[index % FIRST_NAMES.length];
+        String lastName = LAST_NAMES[(index / FIRST_NAMES.length) % LAST_NAMES.length];
+        return new Student(studentId(index), index % 2 == 0 ? "Mr." : "Ms.", firstName, lastName,
+                LocalDate.of(2005, 1, 1).plusDays(index % 700), SCHOOLS[index % SCHOOLS.length],
+                firstName.toLowerCase() + "." + lastName.toLowerCase() + index + "@email.com");
+    }
+    
+    // Every fourth subject requires the subject before it
+    public static Subject subject(int index, int maxCapacity) {
+        String prerequisite = index % 4 == 3 ? subjectId(index - 1) : null;
+        return new Subject(subjectId(index), "Benchmark Subject " + index, 3,
+                "Dr. " + LAST_NAMES[index % LAST_NAMES.length], prerequisite, maxCapacity);
+    }
+    
+    public static Registration registration(Student student, Subject subject, RegistrationStatus status) {
+        Registration registration = new Registration(student.getStudentId(), subject.getSubjectId());
+        registration.setStatus(status);
+        registration.setStudent(student);
+        registration.setSubject(subject);
+        return registration;
+    }
+}
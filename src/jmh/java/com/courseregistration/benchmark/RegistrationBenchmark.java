@@ -0,0 +1,101 @@
+package com.courseregistration.benchmark;
+
+import com.courseregistration.config.CacheConfig;
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.RegistrationRequestDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.service.RegistrationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RegistrationBenchmark {
+    
+    private RegistrationService registrationService;
+    private TransactionTemplate transactionTemplate;
+    private Cache availableSubjectsCache;
+    private List<String> studentIds;
+    private List<String> subjectIds;
+    private int studentCursor;
+    private int subjectCursor;
+    
+    @Setup(Level.Trial)
+    public void setUp(ApplicationState application) {
+        registrationService = application.getBean(RegistrationService.class);
+        transactionTemplate = new TransactionTemplate(application.getBean(PlatformTransactionManager.class));
+        availableSubjectsCache = application.getBean(CacheManager.class).getCache(CacheConfig.AVAILABLE_SUBJECTS);
+        studentIds = application.getStudentIds();
+        subjectIds = application.getOpenSubjectIds();
+    }
+    
+    // Runs inside an outer transaction that is rolled back, so every invocation sees the seeded state
+    @Benchmark
+    public RegistrationDTO registerStudent() {
+        RegistrationRequestDTO request = new RegistrationRequestDTO(nextStudentId(),
+                subjectIds.get(subjectCursor++ % subjectIds.size()));
+        return transactionTemplate.execute(status -> {
+            status.setRollbackOnly();
+            return registrationService.registerStudent(request);
+        });
+    }
+    
+    @Benchmark
+    public List<SubjectDTO> availableSubjectsCached(HotStudents hotStudents) {
+        return registrationService.getAvailableSubjectsForStudent(hotStudents.next());
+    }
+    
+    @Benchmark
+    public List<SubjectDTO> availableSubjectsUncached() {
+        String studentId = nextStudentId();
+        availableSubjectsCache.evict(studentId);
+        return registrationService.getAvailableSubjectsForStudent(studentId);
+    }
+    
+    private String nextStudentId() {
+        return studentIds.get(studentCursor++ % studentIds.size());
+    }
+    
+    // A small set of students whose available subjects are cached before every iteration, so the
+    // cached benchmark measures hits rather than the first miss for each of the seeded students
+    @State(Scope.Thread)
+    public static class HotStudents {
+        
+        private static final int SIZE = 100;
+        
+        private List<String> studentIds;
+        private int cursor;
+        
+        @Setup(Level.Iteration)
+        public void warm(ApplicationState application) {
+            RegistrationService registrationService = application.getBean(RegistrationService.class);
+            List<String> seeded = application.getStudentIds();
+            studentIds = seeded.subList(0, Math.min(SIZE, seeded.size()));
+            studentIds.forEach(registrationService::getAvailableSubjectsForStudent);
+        }
+        
+        String next() {
+            return studentIds.get(cursor++ % studentIds.size());
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.courseregistration.benchmark;
+
+import com.courseregistration.dto.ApiResponse;
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.StudentDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.model.Student;
+import com.courseregistration.model.Subject;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Serializes ApiResponse<List<...>> the way the controllers return it, with the mapper configured like Spring Boot's
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializationBenchmark {
+    
+    @Param({"10", "100", "1000"})
+    public int size;
+    
+    private ObjectMapper objectMapper;
+    private ApiResponse<List<StudentDTO>> students;
+    private ApiResponse<List<SubjectDTO>> subjects;
+    private ApiResponse<List<RegistrationDTO>> registrations;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        
+        List<StudentDTO> studentRows = new ArrayList<>();
+        List<SubjectDTO> subjectRows = new ArrayList<>();
+        List<RegistrationDTO> registrationRows = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            Student student = BenchmarkFixtures.student(i);
+            Subject subject = BenchmarkFixtures.subject(i % BenchmarkFixtures.MAX_SUBJECTS, 30);
+            studentRows.add(new StudentDTO(student.getStudentId(), student.getTitle(), student.getFirstName(),
+                    student.getLastName(), student.getDateOfBirth(), student.getCurrentSchool(), student.getEmail()));
+            subjectRows.add(new SubjectDTO(subject.getSubjectId(), subject.getSubjectName(), subject.getCredits(),
+                    subject.getInstructorName(), subject.getPrerequisiteSubjectId(), subject.getMaxCapacity()));
+            
+            RegistrationDTO registration = new RegistrationDTO(student.getStudentId(), subject.getSubjectId());
+            registration.setId((long) i + 1);
+            registration.setRegistrationDate(LocalDateTime.of(2025, 1, 1, 9, 0).plusMinutes(i));
+            registration.setStatus(RegistrationStatus.ACTIVE);
+            registration.setStudentName(student.getFullName());
+            registration.setSubjectName(subject.getSubjectName());
+            registrationRows.add(registration);
+        }
+        students = ApiResponse.success("Students retrieved successfully", studentRows);
+        subjects = ApiResponse.success("Subjects retrieved successfully", subjectRows);
+        registrations = ApiResponse.success("Registrations retrieved successfully", registrationRows);
+    }
+    
+    @Benchmark
+    public byte[] serializeStudents() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(students);
+    }
+    
+    @Benchmark
+    public byte[] serializeSubjects() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(subjects);
+    }
+    
+    @Benchmark
+    public byte[] serializeRegistrations() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(registrations);
+    }
+}
@@ -0,0 +1,103 @@
+package com.courseregistration.benchmark;
+
+import com.courseregistration.concurrency.BoundedDataSource;
+import com.courseregistration.concurrency.VirtualThreads;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Platform-thread pool (Tomcat's default of 200 workers) against one virtual thread per request, for a
+// burst of requests that each block on I/O and then run a short query through the bounded pool.
+// The virtual mode needs Java 21+: mvn -Pjmh test-compile exec:exec -Djmh.args="ThreadModeBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+public class ThreadModeBenchmark {
+    
+    private static final int PLATFORM_WORKERS = 200;
+    private static final int POOL_SIZE = 20;
+    
+    @Param({"platform", "virtual"})
+    public String mode;
+    
+    // Concurrent requests per invocation
+    @Param("2000")
+    public int requests;
+    
+    // Time each request spends blocked outside the database, e.g. on the network
+    @Param("10")
+    public int blockedMillis;
+    
+    private HikariDataSource pool;
+    private BoundedDataSource dataSource;
+    private ExecutorService executor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl("jdbc:h2:mem:threadmode;DB_CLOSE_DELAY=-1");
+        config.setMaximumPoolSize(POOL_SIZE);
+        pool = new HikariDataSource(config);
+        dataSource = new BoundedDataSource(pool, POOL_SIZE, Duration.ofSeconds(30));
+        if ("virtual".equals(mode)) {
+            executor = VirtualThreads.newThreadPerTaskExecutor("bench-vt-");
+        } else {
+            executor = Executors.newFixedThreadPool(PLATFORM_WORKERS);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+        pool.close();
+    }
+    
+    @Benchmark
+    public long burst() throws Exception {
+        List<Future<Long>> results = new ArrayList<>(requests);
+        for (int i = 0; i < requests; i++) {
+            results.add(executor.submit(this::handleRequest));
+        }
+        long total = 0;
+        for (Future<Long> result : results) {
+            total += result.get();
+        }
+        return total;
+    }
+    
+    private long handleRequest() throws Exception {
+        Thread.sleep(blockedMillis);
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rows = statement.executeQuery("SELECT 1")) {
+            rows.next();
+            return rows.getLong(1);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.courseregistration.service;
+
+import com.courseregistration.benchmark.BenchmarkFixtures;
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.StudentDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.model.Registration;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.model.Student;
+import com.courseregistration.model.Subject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Lives in the service package because the convertToDTO mappers are package-private.
+// The mappers do not touch their service's collaborators, so plain instances are enough.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+    
+    private final StudentService studentService = new StudentService();
+    private final SubjectService subjectService = new SubjectService();
+    private final RegistrationService registrationService = new RegistrationService();
+    
+    private Student student;
+    private Subject subject;
+    private Registration registration;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        student = BenchmarkFixtures.student(1);
+        subject = BenchmarkFixtures.subject(3, 30);
+        registration = BenchmarkFixtures.registration(student, subject, RegistrationStatus.ACTIVE);
+        registration.setId(1L);
+    }
+    
+    @Benchmark
+    public StudentDTO studentToDTO() {
+        return studentService.convertToDTO(student);
+    }
+    
+    @Benchmark
+    public SubjectDTO subjectToDTO() {
+        return subjectService.convertToDTO(subject);
+    }
+    
+    @Benchmark
+    public RegistrationDTO registrationToDTO() {
+        return registrationService.convertToDTO(registration);
+    }
+}
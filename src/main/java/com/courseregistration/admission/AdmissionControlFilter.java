@@ -0,0 +1,208 @@
+package com.courseregistration.admission;
+
+import com.courseregistration.dto.ApiResponse;
+import com.courseregistration.web.CachedBodyRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.annotation.PostConstruct;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Sheds load before it reaches the connection pool. Each student gets a token bucket for registration
+// writes and a separate one for reads of their registrations, so polling cannot use up the budget for
+// registering. All writes share one concurrency limit, and catalog reads on /api/subjects run
+// in their own bulkhead, so a registration storm can neither take every connection nor slow the
+// catalog down. Rejected requests get 429 with a Retry-After header.
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class AdmissionControlFilter extends OncePerRequestFilter {
+    
+    private static final String REGISTRATIONS = "/api/registrations/";
+    private static final String STUDENT_ROUTES = REGISTRATIONS + "student/";
+    private static final String SUBJECTS = "/api/subjects";
+    
+    // Registration bodies are tiny; anything larger is left for the controller to reject
+    private static final int MAX_INSPECTED_BODY = 16 * 1024;
+    
+    @Value("${app.admission.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.admission.student.burst:5}")
+    private int studentBurst;
+    
+    @Value("${app.admission.student.per-second:1}")
+    private double studentPerSecond;
+    
+    @Value("${app.admission.student-reads.burst:20}")
+    private int studentReadBurst;
+    
+    @Value("${app.admission.student-reads.per-second:5}")
+    private double studentReadPerSecond;
+    
+    @Value("${app.admission.student.max-tracked:100000}")
+    private long maxTrackedStudents;
+    
+    @Value("${app.admission.writes.max-concurrent:6}")
+    private int maxConcurrentWrites;
+    
+    @Value("${app.admission.subject-reads.max-concurrent:32}")
+    private int maxConcurrentSubjectReads;
+    
+    // How long a request may wait for a free slot before it is shed
+    @Value("${app.admission.max-wait:50ms}")
+    private Duration maxWait;
+    
+    @Value("${app.admission.retry-after:1s}")
+    private Duration retryAfter;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Cache<String, TokenBucket> studentBuckets;
+    private Cache<String, TokenBucket> studentReadBuckets;
+    private Semaphore writeSlots;
+    private Semaphore subjectReadSlots;
+    
+    @PostConstruct
+    public void init() {
+        studentBuckets = buckets(studentBurst, studentPerSecond);
+        studentReadBuckets = buckets(studentReadBurst, studentReadPerSecond);
+        writeSlots = new Semaphore(maxConcurrentWrites);
+        subjectReadSlots = new Semaphore(maxConcurrentSubjectReads);
+        Gauge.builder("app.admission.in.flight", writeSlots, slots -> maxConcurrentWrites - slots.availablePermits())
+                .description("Write requests currently admitted")
+                .tag("pool", "writes")
+                .register(meterRegistry);
+        Gauge.builder("app.admission.in.flight", subjectReadSlots, slots -> maxConcurrentSubjectReads - slots.availablePermits())
+                .description("Catalog reads currently admitted")
+                .tag("pool", "subject-reads")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !enabled || !path(request).startsWith("/api/");
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String path = path(request);
+        boolean write = !"GET".equals(request.getMethod()) && !"HEAD".equals(request.getMethod());
+        
+        HttpServletRequest admitted = request;
+        String studentId = null;
+        if (write && path.equals(REGISTRATIONS + "register")) {
+            byte[] body = readBody(request);
+            if (body != null) {
+                admitted = new CachedBodyRequest(request, body);
+                studentId = studentIdFromBody(body);
+            }
+        } else if (!write && path.startsWith(STUDENT_ROUTES)) {
+            int end = path.indexOf('/', STUDENT_ROUTES.length());
+            studentId = path.substring(STUDENT_ROUTES.length(), end < 0 ? path.length() : end);
+        }
+        
+        if (studentId != null && !studentId.isEmpty()) {
+            long waitNanos = write
+                    ? studentBuckets.get(studentId, key -> new TokenBucket(studentBurst, studentPerSecond)).tryConsume()
+                    : studentReadBuckets.get(studentId, key -> new TokenBucket(studentReadBurst, studentReadPerSecond)).tryConsume();
+            if (waitNanos > 0) {
+                reject(response, write ? "student-rate" : "student-read-rate", Duration.ofNanos(waitNanos),
+                        "Too many " + (write ? "registration" : "read") + " requests for student " + studentId
+                                + ", please retry later");
+                return;
+            }
+        }
+        
+        Semaphore slots = write ? writeSlots : path.startsWith(SUBJECTS) ? subjectReadSlots : null;
+        if (slots == null) {
+            filterChain.doFilter(admitted, response);
+            return;
+        }
+        
+        boolean acquired;
+        try {
+            acquired = slots.tryAcquire(maxWait.toNanos(), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            reject(response, write ? "writes" : "subject-reads", retryAfter,
+                    "The server is busy, please retry later");
+            return;
+        }
+        try {
+            filterChain.doFilter(admitted, response);
+        } finally {
+            slots.release();
+        }
+    }
+    
+    // Idle buckets are dropped once they would have refilled anyway
+    private Cache<String, TokenBucket> buckets(int burst, double perSecond) {
+        return Caffeine.newBuilder()
+                .maximumSize(maxTrackedStudents)
+                .expireAfterAccess(Duration.ofSeconds((long) Math.ceil(burst / perSecond) + 60))
+                .build();
+    }
+    
+    private void reject(HttpServletResponse response, String reason, Duration wait, String message) throws IOException {
+        Counter.builder("app.admission.rejected")
+                .description("Requests shed by admission control")
+                .tag("reason", reason)
+                .register(meterRegistry)
+                .increment();
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, (wait.toMillis() + 999) / 1000)));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(objectMapper.writeValueAsBytes(ApiResponse.error(message)));
+    }
+    
+    private static byte[] readBody(HttpServletRequest request) throws IOException {
+        if (request.getContentLengthLong() > MAX_INSPECTED_BODY) {
+            return null;
+        }
+        return StreamUtils.copyToByteArray(request.getInputStream());
+    }
+    
+    // Malformed bodies are let through without a student bucket; the controller answers them with 400
+    private String studentIdFromBody(byte[] body) {
+        try {
+            JsonNode studentId = objectMapper.readTree(body).path("studentId");
+            return studentId.isTextual() ? studentId.asText() : null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+    
+    private static String path(HttpServletRequest request) {
+        return request.getRequestURI().substring(request.getContextPath().length());
+    }
+}
@@ -0,0 +1,44 @@
+package com.courseregistration.concurrency;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+// Virtual threads are a JDK 21 API and the build still targets Java 8, so they are reached through
+// reflection. Callers check isSupported() and keep platform threads on older runtimes.
+public final class VirtualThreads {
+    
+    private VirtualThreads() {}
+    
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+    
+    // Equivalent to Thread.ofVirtual().name(prefix, 0).factory()
+    public static ThreadFactory factory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running on " + System.getProperty("java.version"), e);
+        }
+    }
+    
+    // Equivalent to Executors.newThreadPerTaskExecutor(factory(prefix))
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        try {
+            Method newExecutor = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) newExecutor.invoke(null, factory(prefix));
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Virtual threads need Java 21 or later, running on " + System.getProperty("java.version"), e);
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.courseregistration.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.Collections;
+
+// The caches front the database read path, which is primary only with app.read-model.enabled=false.
+// With the read model on they are bypassed, so a read it cannot answer yet goes to the database.
+@Configuration
+@EnableCaching
+public class CacheConfig {
+    
+    // Subject by ID
+    public static final String SUBJECTS = "subjects";
+    
+    // Derived catalog lists, keyed by view name
+    public static final String SUBJECT_VIEWS = "subjectViews";
+    
+    // Subjects a student can still register for, keyed by student ID
+    public static final String AVAILABLE_SUBJECTS = "availableSubjects";
+    
+    @Value("${app.cache.subjects.max-size:10000}")
+    private long subjectsMaxSize;
+    
+    @Value("${app.cache.subjects.ttl:10m}")
+    private Duration subjectsTtl;
+    
+    @Value("${app.cache.available-subjects.max-size:10000}")
+    private long availableSubjectsMaxSize;
+    
+    // Short TTL: seats taken by other students are not evicted eagerly
+    @Value("${app.cache.available-subjects.ttl:30s}")
+    private Duration availableSubjectsTtl;
+    
+    @Bean
+    public CacheManager cacheManager() {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setCacheNames(Collections.emptyList());
+        cacheManager.registerCustomCache(SUBJECTS, Caffeine.newBuilder()
+                .maximumSize(subjectsMaxSize)
+                .expireAfterWrite(subjectsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(SUBJECT_VIEWS, Caffeine.newBuilder()
+                .maximumSize(100)
+                .expireAfterWrite(subjectsTtl)
+                .recordStats()
+                .build());
+        cacheManager.registerCustomCache(AVAILABLE_SUBJECTS, Caffeine.newBuilder()
+                .maximumSize(availableSubjectsMaxSize)
+                .expireAfterWrite(availableSubjectsTtl)
+                .recordStats()
+                .build());
+        // Evictions are deferred until commit so a concurrent read cannot re-cache uncommitted state
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -1,7 +1,11 @@
 package com.courseregistration.config;
 
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfoHandlerMapping;
 import springfox.documentation.builders.ApiInfoBuilder;
 import springfox.documentation.builders.PathSelectors;
 import springfox.documentation.builders.RequestHandlerSelectors;
@@ -9,8 +13,12 @@ import springfox.documentation.service.ApiInfo;
 import springfox.documentation.service.Contact;
 import springfox.documentation.spi.DocumentationType;
 import springfox.documentation.spring.web.plugins.Docket;
+import springfox.documentation.spring.web.plugins.WebMvcRequestHandlerProvider;
 import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
+import java.lang.reflect.Field;
+import java.util.List;
+
 @Configuration
 @EnableSwagger2
 public class OpenApiConfig {
@@ -25,6 +33,28 @@ public class OpenApiConfig {
                 .apiInfo(apiInfo());
     }
     
+    // Springfox 2.9 only understands ant-style mappings and fails on the PathPatternParser based
+    // actuator endpoint mappings, so those are hidden from it. The documented controllers are unaffected.
+    @Bean
+    public static BeanPostProcessor springfoxHandlerProviderCustomizer() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof WebMvcRequestHandlerProvider) {
+                    Field field = ReflectionUtils.findField(bean.getClass(), "handlerMappings");
+                    if (field != null) {
+                        ReflectionUtils.makeAccessible(field);
+                        @SuppressWarnings("unchecked")
+                        List<RequestMappingInfoHandlerMapping> mappings =
+                                (List<RequestMappingInfoHandlerMapping>) ReflectionUtils.getField(field, bean);
+                        mappings.removeIf(mapping -> mapping.getPatternParser() != null);
+                    }
+                }
+                return bean;
+            }
+        };
+    }
+    
     private ApiInfo apiInfo() {
         return new ApiInfoBuilder()
                 .title("Course Registration System API")
@@ -0,0 +1,77 @@
+package com.courseregistration.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+
+// Data fixes that ddl-auto=update cannot make when it evolves an existing PostgreSQL schema. Runs once
+// Hibernate has updated the tables and before the web server takes requests; every step is a no-op on
+// a schema that is already current, and on the in-memory database, which is created fresh each start.
+// Steps that only apply to PostgreSQL are skipped elsewhere.
+@Component
+@DependsOn("entityManagerFactory")
+public class SchemaUpgrade {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SchemaUpgrade.class);
+    
+    // Registration ids used to come from an identity column. The sequence Hibernate creates for them
+    // starts at 1, so move it past the existing ids; the pooled optimizer hands out the block below
+    // the next value, which then starts right after MAX(id)
+    private static final String ADVANCE_REGISTRATION_SEQUENCE = "SELECT setval('registrations_seq', r.max_id) " +
+            "FROM (SELECT MAX(id) AS max_id FROM registrations) r " +
+            "WHERE r.max_id > (SELECT last_value FROM registrations_seq)";
+    
+    // active_marker is added as NULL to existing rows, which leaves current registrations outside
+    // uk_registrations_active. Mark them, keeping the earliest when a pair already has duplicates so
+    // the constraint still holds; later duplicates stay unmarked and are reported
+    private static final String BACKFILL_ACTIVE_MARKER = "UPDATE registrations SET active_marker = TRUE " +
+            "WHERE status IN ('ACTIVE', 'WAITLISTED') AND active_marker IS NULL AND NOT EXISTS (" +
+            "SELECT 1 FROM registrations o WHERE o.student_id = registrations.student_id " +
+            "AND o.subject_id = registrations.subject_id AND o.id <> registrations.id " +
+            "AND (o.active_marker = TRUE OR (o.status IN ('ACTIVE', 'WAITLISTED') AND o.id < registrations.id)))";
+    private static final String COUNT_UNMARKED = "SELECT COUNT(*) FROM registrations " +
+            "WHERE status IN ('ACTIVE', 'WAITLISTED') AND active_marker IS NULL";
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @PostConstruct
+    public void upgrade() throws Exception {
+        backfillActiveMarker();
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if ("PostgreSQL".equals(product)) {
+            advanceRegistrationSequence();
+        }
+    }
+    
+    void backfillActiveMarker() {
+        int marked = jdbcTemplate.update(BACKFILL_ACTIVE_MARKER);
+        if (marked > 0) {
+            logger.info("Set active_marker on {} existing registrations", marked);
+        }
+        Long unmarked = jdbcTemplate.queryForObject(COUNT_UNMARKED, Long.class);
+        if (unmarked != null && unmarked > 0) {
+            logger.warn("{} current registrations duplicate an earlier one for the same student and subject " +
+                    "and were left without active_marker", unmarked);
+        }
+    }
+    
+    private void advanceRegistrationSequence() {
+        List<Long> advanced = jdbcTemplate.queryForList(ADVANCE_REGISTRATION_SEQUENCE, Long.class);
+        if (!advanced.isEmpty()) {
+            logger.info("Advanced registrations_seq past existing registration id {}", advanced.get(0));
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.courseregistration.config;
+
+import com.courseregistration.concurrency.BoundedDataSource;
+import com.courseregistration.concurrency.VirtualThreads;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+
+// Opt-in "virtual-threads" profile: Tomcat hands every request to a new virtual thread instead of its
+// fixed worker pool, so MVC controllers blocked on JDBC no longer hold a scarce platform thread.
+// The pool is then the only limit on database work, so connection checkouts go through
+// BoundedDataSource. Needs Java 21+; on older runtimes it logs a warning and keeps platform threads.
+@Configuration
+@Profile("virtual-threads")
+public class VirtualThreadConfig {
+    
+    private static final Logger log = LoggerFactory.getLogger(VirtualThreadConfig.class);
+    
+    // Kept out of the context: an Executor bean would switch off Boot's default applicationTaskExecutor
+    private volatile ExecutorService requestExecutor;
+    
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandler() {
+        return protocolHandler -> {
+            if (!VirtualThreads.isSupported()) {
+                log.warn("Profile virtual-threads is active but Java {} has no virtual threads; keeping Tomcat's platform pool",
+                        System.getProperty("java.version"));
+                return;
+            }
+            requestExecutor = VirtualThreads.newThreadPerTaskExecutor("http-vt-");
+            protocolHandler.setExecutor(requestExecutor);
+            log.info("Serving requests on virtual threads");
+        };
+    }
+    
+    // Tomcat only shuts down executors it created itself
+    @PreDestroy
+    public void shutdown() {
+        if (requestExecutor != null) {
+            requestExecutor.shutdown();
+        }
+    }
+    
+    // Static so the post-processor is registered before the DataSource it wraps is created
+    @Bean
+    public static BeanPostProcessor boundedDataSourcePostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource) || bean instanceof BoundedDataSource) {
+                    return bean;
+                }
+                // Sized to the pool by default, so a permit means a connection is (nearly) free
+                int permits = environment.getProperty("app.virtual-threads.jdbc.max-concurrent", Integer.class,
+                        bean instanceof HikariDataSource ? ((HikariDataSource) bean).getMaximumPoolSize() : 10);
+                Duration timeout = environment.getProperty("app.virtual-threads.jdbc.acquire-timeout", Duration.class,
+                        Duration.ofSeconds(30));
+                log.info("JDBC checkouts bounded to {} concurrent connections", permits);
+                return new BoundedDataSource((DataSource) bean, permits, timeout);
+            }
+        };
+    }
+    
+    @Bean
+    public MeterBinder jdbcPermitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof BoundedDataSource) {
+                BoundedDataSource bounded = (BoundedDataSource) dataSource;
+                Gauge.builder("app.jdbc.permits.available", bounded, BoundedDataSource::getAvailablePermits)
+                        .register(registry);
+                Gauge.builder("app.jdbc.permits.waiting", bounded, BoundedDataSource::getQueueLength)
+                        .register(registry);
+            }
+        };
+    }
+}
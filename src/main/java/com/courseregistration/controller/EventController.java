@@ -0,0 +1,94 @@
+package com.courseregistration.controller;
+
+import com.courseregistration.outbox.EventLog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.time.Duration;
+
+@RestController
+@RequestMapping("/api/events")
+@CrossOrigin(origins = "*")
+public class EventController {
+    
+    private static final String NDJSON = "application/x-ndjson";
+    
+    // Offset to pass as fromOffset on the next poll
+    public static final String NEXT_OFFSET_HEADER = "Next-Offset";
+    
+    @Value("${app.outbox.max-poll-events:1000}")
+    private int maxPollEvents;
+    
+    @Value("${app.outbox.max-wait:30s}")
+    private Duration maxWait;
+    
+    @Autowired
+    private EventLog eventLog;
+    
+    // Long poll over the registration event log: newline-delimited JSON records from fromOffset on, returned
+    // as soon as there are any, or HTTP 204 once waitSeconds pass without a new event
+    @GetMapping
+    public DeferredResult<ResponseEntity<StreamingResponseBody>> getEvents(@RequestParam(defaultValue = "0") long fromOffset,
+                                                                           @RequestParam(defaultValue = "100") int limit,
+                                                                           @RequestParam(required = false) Integer waitSeconds) {
+        if (limit < 1 || limit > maxPollEvents) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxPollEvents);
+        }
+        if (fromOffset < eventLog.getStartOffset()) {
+            throw new IllegalArgumentException("Offset " + fromOffset + " is no longer retained; the log starts at " + eventLog.getStartOffset());
+        }
+        if (fromOffset > eventLog.getEndOffset()) {
+            throw new IllegalArgumentException("Offset " + fromOffset + " is past the end of the log at " + eventLog.getEndOffset());
+        }
+        
+        long wait = waitSeconds != null
+                ? Math.min(Duration.ofSeconds(Math.max(waitSeconds, 0)).toMillis(), maxWait.toMillis())
+                : maxWait.toMillis();
+        DeferredResult<ResponseEntity<StreamingResponseBody>> result =
+                new DeferredResult<>(wait, () -> ResponseEntity.noContent()
+                        .header(NEXT_OFFSET_HEADER, String.valueOf(fromOffset))
+                        .build());
+        Runnable deliver = () -> result.setResult(events(fromOffset, limit));
+        if (eventLog.getEndOffset() > fromOffset || wait == 0) {
+            deliver.run();
+            return result;
+        }
+        // Registered before the second check, so an append in between still completes the poll
+        eventLog.onNextAppend(deliver);
+        result.onCompletion(() -> eventLog.removeListener(deliver));
+        if (eventLog.getEndOffset() > fromOffset) {
+            deliver.run();
+        }
+        return result;
+    }
+    
+    private ResponseEntity<StreamingResponseBody> events(long fromOffset, int limit) {
+        EventLog.Batch batch = eventLog.read(fromOffset, limit);
+        if (batch.isEmpty()) {
+            return ResponseEntity.noContent()
+                    .header(NEXT_OFFSET_HEADER, String.valueOf(fromOffset))
+                    .build();
+        }
+        // Slices of the mapped segments go to the response as they are
+        StreamingResponseBody body = outputStream -> {
+            WritableByteChannel channel = Channels.newChannel(outputStream);
+            for (ByteBuffer chunk : batch.getChunks()) {
+                while (chunk.hasRemaining()) {
+                    channel.write(chunk);
+                }
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(NDJSON))
+                .header(NEXT_OFFSET_HEADER, String.valueOf(batch.getNextOffset()))
+                .body(body);
+    }
+}
@@ -1,25 +1,58 @@
 package com.courseregistration.controller;
 
 import com.courseregistration.dto.ApiResponse;
+import com.courseregistration.dto.CursorPageDTO;
+import com.courseregistration.dto.BatchRegistrationResultDTO;
 import com.courseregistration.dto.RegistrationDTO;
 import com.courseregistration.dto.RegistrationRequestDTO;
+import com.courseregistration.dto.RegistrationTicketDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.intake.RegistrationIntake;
+import com.courseregistration.live.LiveUpdateBroadcaster;
+import com.courseregistration.model.RegistrationStatus;
 import com.courseregistration.service.RegistrationService;
+import com.courseregistration.web.ResourceVersions;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/api/registrations")
 @CrossOrigin(origins = "*")
 public class RegistrationController {
     
+    private static final String NDJSON = "application/x-ndjson";
+    
     @Autowired
     private RegistrationService registrationService;
     
+    @Autowired
+    private RegistrationIntake registrationIntake;
+    
+    @Autowired
+    private LiveUpdateBroadcaster liveUpdateBroadcaster;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     @GetMapping
     public ResponseEntity<ApiResponse<List<RegistrationDTO>>> getAllRegistrations() {
         try {
@@ -31,11 +64,64 @@ public class RegistrationController {
         }
     }
     
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<CursorPageDTO<RegistrationDTO>>> getRegistrationsPage(@RequestParam(required = false) Long after,
+                                                                                           @RequestParam(defaultValue = "50") int limit) {
+        try {
+            CursorPageDTO<RegistrationDTO> page = registrationService.getRegistrationsPage(after, limit);
+            return ResponseEntity.ok(ApiResponse.success("Registrations retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving registrations: " + e.getMessage()));
+        }
+    }
+    
+    // Newline-delimited JSON, one registration per line, written while the rows are read
+    @GetMapping(value = "/stream", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> streamRegistrations() {
+        StreamingResponseBody body = outputStream -> registrationService.streamAllRegistrations(registration -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(registration));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+    
+    // Server-sent "update" events with seat availability and registration changes, or "resync" when the client must reload
+    @GetMapping(value = "/updates", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamUpdates() {
+        Optional<SseEmitter> emitter = liveUpdateBroadcaster.subscribe();
+        if (emitter.isPresent()) {
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CACHE_CONTROL, "no-store")
+                    .header("X-Accel-Buffering", "no")
+                    .body(emitter.get());
+        } else {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .build();
+        }
+    }
+    
+    // Conditional: a current If-None-Match gets a 304 without touching the database
     @GetMapping("/student/{studentId}")
-    public ResponseEntity<ApiResponse<List<RegistrationDTO>>> getRegistrationsByStudent(@PathVariable String studentId) {
+    public ResponseEntity<ApiResponse<List<RegistrationDTO>>> getRegistrationsByStudent(@PathVariable String studentId,
+                                                                                        WebRequest request) {
+        String eTag = resourceVersions.studentRegistrationsETag(studentId);
+        CacheControl cacheControl = resourceVersions.studentRegistrationsCacheControl();
+        if (ResourceVersions.notModified(request, eTag, cacheControl)) {
+            return null;
+        }
         try {
             List<RegistrationDTO> registrations = registrationService.getRegistrationsByStudent(studentId);
-            return ResponseEntity.ok(ApiResponse.success("Student registrations retrieved successfully", registrations));
+            return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl)
+                    .body(ApiResponse.success("Student registrations retrieved successfully", registrations));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error retrieving student registrations: " + e.getMessage()));
@@ -43,10 +129,17 @@ public class RegistrationController {
     }
     
     @GetMapping("/student/{studentId}/active")
-    public ResponseEntity<ApiResponse<List<RegistrationDTO>>> getActiveRegistrationsByStudent(@PathVariable String studentId) {
+    public ResponseEntity<ApiResponse<List<RegistrationDTO>>> getActiveRegistrationsByStudent(@PathVariable String studentId,
+                                                                                              WebRequest request) {
+        String eTag = resourceVersions.studentRegistrationsETag(studentId);
+        CacheControl cacheControl = resourceVersions.studentRegistrationsCacheControl();
+        if (ResourceVersions.notModified(request, eTag, cacheControl)) {
+            return null;
+        }
         try {
             List<RegistrationDTO> registrations = registrationService.getActiveRegistrationsByStudent(studentId);
-            return ResponseEntity.ok(ApiResponse.success("Active student registrations retrieved successfully", registrations));
+            return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl)
+                    .body(ApiResponse.success("Active student registrations retrieved successfully", registrations));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error retrieving active student registrations: " + e.getMessage()));
@@ -79,6 +172,10 @@ public class RegistrationController {
     public ResponseEntity<ApiResponse<RegistrationDTO>> registerStudent(@Valid @RequestBody RegistrationRequestDTO request) {
         try {
             RegistrationDTO registration = registrationService.registerStudent(request);
+            if (registration.getStatus() == RegistrationStatus.WAITLISTED) {
+                return ResponseEntity.status(HttpStatus.ACCEPTED)
+                        .body(ApiResponse.success("Subject is full, student added to the waitlist", registration));
+            }
             return ResponseEntity.status(HttpStatus.CREATED)
                     .body(ApiResponse.success("Student registered successfully", registration));
         } catch (IllegalArgumentException e) {
@@ -90,6 +187,56 @@ public class RegistrationController {
         }
     }
     
+    // Answers before touching the database; the outcome is polled from the returned ticket
+    @PostMapping(value = "/register", params = "async=true")
+    public ResponseEntity<ApiResponse<RegistrationTicketDTO>> registerStudentAsync(@Valid @RequestBody RegistrationRequestDTO request) {
+        try {
+            RegistrationTicketDTO ticket = registrationIntake.submit(request);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .header(HttpHeaders.LOCATION, "/api/registrations/tickets/" + ticket.getTicketId())
+                    .body(ApiResponse.success("Registration queued", ticket));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error queuing registration: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/tickets/{ticketId}")
+    public ResponseEntity<ApiResponse<RegistrationTicketDTO>> getRegistrationTicket(@PathVariable String ticketId) {
+        try {
+            Optional<RegistrationTicketDTO> ticket = registrationIntake.getTicket(ticketId);
+            if (ticket.isPresent()) {
+                return ResponseEntity.ok(ApiResponse.success("Registration ticket retrieved successfully", ticket.get()));
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Registration ticket not found with ID: " + ticketId));
+            }
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving registration ticket: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/batch")
+    public ResponseEntity<ApiResponse<List<BatchRegistrationResultDTO>>> registerStudents(@RequestBody List<RegistrationRequestDTO> requests) {
+        try {
+            List<BatchRegistrationResultDTO> results = registrationService.registerStudents(requests);
+            long registered = results.stream().filter(BatchRegistrationResultDTO::isSuccess).count();
+            return ResponseEntity.ok(ApiResponse.success("Batch processed: " + registered + " registered, "
+                    + (results.size() - registered) + " rejected", results));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error processing registration batch: " + e.getMessage()));
+        }
+    }
+    
     @PutMapping("/{registrationId}/cancel")
     public ResponseEntity<ApiResponse<RegistrationDTO>> cancelRegistration(@PathVariable Long registrationId) {
         try {
@@ -98,12 +245,30 @@ public class RegistrationController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(ApiResponse.error(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("Registration was modified concurrently, please retry"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error cancelling registration: " + e.getMessage()));
         }
     }
     
+    // Cheap to poll: one primary-key lookup and one index range count
+    @GetMapping("/{registrationId}/waitlist-position")
+    public ResponseEntity<ApiResponse<RegistrationDTO>> getWaitlistPosition(@PathVariable Long registrationId) {
+        try {
+            RegistrationDTO registration = registrationService.getWaitlistPosition(registrationId);
+            return ResponseEntity.ok(ApiResponse.success("Waitlist position retrieved successfully", registration));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving waitlist position: " + e.getMessage()));
+        }
+    }
+    
     @PutMapping("/{registrationId}/complete")
     public ResponseEntity<ApiResponse<RegistrationDTO>> completeRegistration(@PathVariable Long registrationId) {
         try {
@@ -112,6 +277,9 @@ public class RegistrationController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(ApiResponse.error(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("Registration was modified concurrently, please retry"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error completing registration: " + e.getMessage()));
@@ -119,9 +287,9 @@ public class RegistrationController {
     }
     
     @GetMapping("/student/{studentId}/available")
-    public ResponseEntity<ApiResponse<List<RegistrationDTO>>> getAvailableSubjectsForStudent(@PathVariable String studentId) {
+    public ResponseEntity<ApiResponse<List<SubjectDTO>>> getAvailableSubjectsForStudent(@PathVariable String studentId) {
         try {
-            List<RegistrationDTO> availableSubjects = registrationService.getAvailableSubjectsForStudent(studentId);
+            List<SubjectDTO> availableSubjects = registrationService.getAvailableSubjectsForStudent(studentId);
             return ResponseEntity.ok(ApiResponse.success("Available subjects retrieved successfully", availableSubjects));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -1,14 +1,21 @@
 package com.courseregistration.controller;
 
 import com.courseregistration.dto.ApiResponse;
+import com.courseregistration.dto.CursorPageDTO;
+import com.courseregistration.dto.ImportReportDTO;
 import com.courseregistration.dto.StudentDTO;
+import com.courseregistration.exception.StaleVersionException;
+import com.courseregistration.importer.BulkImportService;
 import com.courseregistration.service.StudentService;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,6 +27,9 @@ public class StudentController {
     @Autowired
     private StudentService studentService;
     
+    @Autowired
+    private BulkImportService bulkImportService;
+    
     @GetMapping
     public ResponseEntity<ApiResponse<List<StudentDTO>>> getAllStudents() {
         try {
@@ -31,6 +41,21 @@ public class StudentController {
         }
     }
     
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<CursorPageDTO<StudentDTO>>> getStudentsPage(@RequestParam(required = false) String after,
+                                                                                 @RequestParam(defaultValue = "50") int limit) {
+        try {
+            CursorPageDTO<StudentDTO> page = studentService.getStudentsPage(after, limit);
+            return ResponseEntity.ok(ApiResponse.success("Students retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving students: " + e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{studentId}")
     public ResponseEntity<ApiResponse<StudentDTO>> getStudentById(@PathVariable String studentId) {
         try {
@@ -75,16 +100,36 @@ public class StudentController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<StudentDTO>>> searchStudentsByName(@RequestParam String name) {
+    public ResponseEntity<ApiResponse<List<StudentDTO>>> searchStudentsByName(@RequestParam String name,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "20") int size) {
         try {
-            List<StudentDTO> students = studentService.searchStudentsByName(name);
+            List<StudentDTO> students = studentService.searchStudentsByName(name, page, size);
             return ResponseEntity.ok(ApiResponse.success("Students retrieved successfully", students));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error searching students: " + e.getMessage()));
         }
     }
     
+    // Bulk import from a CSV body with a header row, streamed in chunks; rejected rows are listed in the report
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ApiResponse<ImportReportDTO>> importStudents(InputStream body) {
+        try {
+            ImportReportDTO report = bulkImportService.importStudents(body);
+            return ResponseEntity.ok(ApiResponse.success("Imported " + report.getImported() + " of " + report.getRowsRead() + " students", report));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error importing students: " + e.getMessage()));
+        }
+    }
+    
     @PostMapping
     public ResponseEntity<ApiResponse<StudentDTO>> createStudent(@Valid @RequestBody StudentDTO studentDTO) {
         try {
@@ -109,6 +154,12 @@ public class StudentController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(ApiResponse.error(e.getMessage()));
+        } catch (StaleVersionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("Student was modified concurrently, please retry"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error updating student: " + e.getMessage()));
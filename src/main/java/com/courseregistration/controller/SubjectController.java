@@ -1,14 +1,25 @@
 package com.courseregistration.controller;
 
 import com.courseregistration.dto.ApiResponse;
+import com.courseregistration.dto.CursorPageDTO;
+import com.courseregistration.dto.ImportReportDTO;
 import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.dto.SubjectStatsDTO;
+import com.courseregistration.exception.StaleVersionException;
+import com.courseregistration.importer.BulkImportService;
 import com.courseregistration.service.SubjectService;
+import com.courseregistration.web.ResourceVersions;
 import javax.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.InputStream;
 import java.util.List;
 import java.util.Optional;
 
@@ -20,17 +31,72 @@ public class SubjectController {
     @Autowired
     private SubjectService subjectService;
     
+    @Autowired
+    private BulkImportService bulkImportService;
+    
+    @Autowired
+    private ResourceVersions resourceVersions;
+    
+    // Conditional: a current If-None-Match gets a 304 without touching the database
     @GetMapping
-    public ResponseEntity<ApiResponse<List<SubjectDTO>>> getAllSubjects() {
+    public ResponseEntity<ApiResponse<List<SubjectDTO>>> getAllSubjects(WebRequest request) {
+        String eTag = resourceVersions.catalogETag();
+        CacheControl cacheControl = resourceVersions.catalogCacheControl();
+        if (ResourceVersions.notModified(request, eTag, cacheControl)) {
+            return null;
+        }
         try {
             List<SubjectDTO> subjects = subjectService.getAllSubjects();
-            return ResponseEntity.ok(ApiResponse.success("Subjects retrieved successfully", subjects));
+            return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl)
+                    .body(ApiResponse.success("Subjects retrieved successfully", subjects));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error retrieving subjects: " + e.getMessage()));
         }
     }
     
+    @GetMapping("/page")
+    public ResponseEntity<ApiResponse<CursorPageDTO<SubjectDTO>>> getSubjectsPage(@RequestParam(required = false) String after,
+                                                                                 @RequestParam(defaultValue = "50") int limit) {
+        try {
+            CursorPageDTO<SubjectDTO> page = subjectService.getSubjectsPage(after, limit);
+            return ResponseEntity.ok(ApiResponse.success("Subjects retrieved successfully", page));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving subjects: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/stats")
+    public ResponseEntity<ApiResponse<List<SubjectStatsDTO>>> getAllSubjectStats() {
+        try {
+            List<SubjectStatsDTO> stats = subjectService.getAllSubjectStats();
+            return ResponseEntity.ok(ApiResponse.success("Subject statistics retrieved successfully", stats));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving subject statistics: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/{subjectId}/stats")
+    public ResponseEntity<ApiResponse<SubjectStatsDTO>> getSubjectStats(@PathVariable String subjectId) {
+        try {
+            Optional<SubjectStatsDTO> stats = subjectService.getSubjectStats(subjectId);
+            if (stats.isPresent()) {
+                return ResponseEntity.ok(ApiResponse.success("Subject statistics retrieved successfully", stats.get()));
+            } else {
+                return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                        .body(ApiResponse.error("Subject not found with ID: " + subjectId));
+            }
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error retrieving subject statistics: " + e.getMessage()));
+        }
+    }
+    
     @GetMapping("/{subjectId}")
     public ResponseEntity<ApiResponse<SubjectDTO>> getSubjectById(@PathVariable String subjectId) {
         try {
@@ -48,10 +114,16 @@ public class SubjectController {
     }
     
     @GetMapping("/available")
-    public ResponseEntity<ApiResponse<List<SubjectDTO>>> getAvailableSubjects() {
+    public ResponseEntity<ApiResponse<List<SubjectDTO>>> getAvailableSubjects(WebRequest request) {
+        String eTag = resourceVersions.catalogETag();
+        CacheControl cacheControl = resourceVersions.catalogCacheControl();
+        if (ResourceVersions.notModified(request, eTag, cacheControl)) {
+            return null;
+        }
         try {
             List<SubjectDTO> subjects = subjectService.getAvailableSubjects();
-            return ResponseEntity.ok(ApiResponse.success("Available subjects retrieved successfully", subjects));
+            return ResponseEntity.ok().eTag(eTag).cacheControl(cacheControl)
+                    .body(ApiResponse.success("Available subjects retrieved successfully", subjects));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error retrieving available subjects: " + e.getMessage()));
@@ -92,10 +164,15 @@ public class SubjectController {
     }
     
     @GetMapping("/search")
-    public ResponseEntity<ApiResponse<List<SubjectDTO>>> searchSubjectsByName(@RequestParam String name) {
+    public ResponseEntity<ApiResponse<List<SubjectDTO>>> searchSubjectsByName(@RequestParam String name,
+                                                               @RequestParam(defaultValue = "0") int page,
+                                                               @RequestParam(defaultValue = "20") int size) {
         try {
-            List<SubjectDTO> subjects = subjectService.searchSubjectsByName(name);
+            List<SubjectDTO> subjects = subjectService.searchSubjectsByName(name, page, size);
             return ResponseEntity.ok(ApiResponse.success("Subjects retrieved successfully", subjects));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error searching subjects: " + e.getMessage()));
@@ -124,6 +201,21 @@ public class SubjectController {
         }
     }
     
+    // Bulk import from a CSV body with a header row, streamed in chunks; rejected rows are listed in the report
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<ApiResponse<ImportReportDTO>> importSubjects(InputStream body) {
+        try {
+            ImportReportDTO report = bulkImportService.importSubjects(body);
+            return ResponseEntity.ok(ApiResponse.success("Imported " + report.getImported() + " of " + report.getRowsRead() + " subjects", report));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(ApiResponse.error("Error importing subjects: " + e.getMessage()));
+        }
+    }
+    
     @PostMapping
     public ResponseEntity<ApiResponse<SubjectDTO>> createSubject(@Valid @RequestBody SubjectDTO subjectDTO) {
         try {
@@ -148,6 +240,12 @@ public class SubjectController {
         } catch (IllegalArgumentException e) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body(ApiResponse.error(e.getMessage()));
+        } catch (StaleVersionException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error(e.getMessage()));
+        } catch (OptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(ApiResponse.error("Subject was modified concurrently, please retry"));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(ApiResponse.error("Error updating subject: " + e.getMessage()));
@@ -0,0 +1,78 @@
+package com.courseregistration.dto;
+
+public class BatchRegistrationResultDTO {
+    
+    private int index;
+    private String studentId;
+    private String subjectId;
+    private boolean success;
+    private String outcome;
+    private String message;
+    private RegistrationDTO registration;
+    
+    // Constructors
+    public BatchRegistrationResultDTO() {}
+    
+    public BatchRegistrationResultDTO(int index, String studentId, String subjectId) {
+        this.index = index;
+        this.studentId = studentId;
+        this.subjectId = subjectId;
+    }
+    
+    // Getters and Setters
+    public int getIndex() {
+        return index;
+    }
+    
+    public void setIndex(int index) {
+        this.index = index;
+    }
+    
+    public String getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+    
+    public String getSubjectId() {
+        return subjectId;
+    }
+    
+    public void setSubjectId(String subjectId) {
+        this.subjectId = subjectId;
+    }
+    
+    public boolean isSuccess() {
+        return success;
+    }
+    
+    public void setSuccess(boolean success) {
+        this.success = success;
+    }
+    
+    public String getOutcome() {
+        return outcome;
+    }
+    
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    public RegistrationDTO getRegistration() {
+        return registration;
+    }
+    
+    public void setRegistration(RegistrationDTO registration) {
+        this.registration = registration;
+    }
+}
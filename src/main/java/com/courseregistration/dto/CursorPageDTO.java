@@ -0,0 +1,61 @@
+package com.courseregistration.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+public class CursorPageDTO<T> {
+    
+    public static final int MAX_LIMIT = 500;
+    
+    private List<T> items;
+    private String nextCursor;
+    private boolean hasMore;
+    
+    // Constructors
+    public CursorPageDTO() {}
+    
+    public CursorPageDTO(List<T> items, String nextCursor, boolean hasMore) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = hasMore;
+    }
+    
+    // Builds a page from up to limit + 1 rows; the extra row only signals that more rows follow
+    public static <T> CursorPageDTO<T> of(List<T> rows, int limit, Function<T, String> cursor) {
+        boolean hasMore = rows.size() > limit;
+        List<T> items = hasMore ? rows.subList(0, limit) : rows;
+        String nextCursor = hasMore ? cursor.apply(items.get(items.size() - 1)) : null;
+        return new CursorPageDTO<>(items, nextCursor, hasMore);
+    }
+    
+    public static void validateLimit(int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("Page limit must be between 1 and " + MAX_LIMIT);
+        }
+    }
+    
+    // Getters and Setters
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,90 @@
+package com.courseregistration.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Outcome of a bulk CSV import. Rows are numbered as in the file, header included; errors lists
+// at most app.bulk-import.max-errors rows, while rejected counts all of them.
+public class ImportReportDTO {
+    
+    private String entity;
+    private long rowsRead;
+    private long imported;
+    private long rejected;
+    private List<ImportRowErrorDTO> errors = new ArrayList<>();
+    private boolean errorsTruncated;
+    private long elapsedMillis;
+    private long rowsPerSecond;
+    
+    // Constructors
+    public ImportReportDTO() {}
+    
+    public ImportReportDTO(String entity) {
+        this.entity = entity;
+    }
+    
+    // Getters and Setters
+    public String getEntity() {
+        return entity;
+    }
+    
+    public void setEntity(String entity) {
+        this.entity = entity;
+    }
+    
+    public long getRowsRead() {
+        return rowsRead;
+    }
+    
+    public void setRowsRead(long rowsRead) {
+        this.rowsRead = rowsRead;
+    }
+    
+    public long getImported() {
+        return imported;
+    }
+    
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+    
+    public long getRejected() {
+        return rejected;
+    }
+    
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+    
+    public List<ImportRowErrorDTO> getErrors() {
+        return errors;
+    }
+    
+    public void setErrors(List<ImportRowErrorDTO> errors) {
+        this.errors = errors;
+    }
+    
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+    
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+    
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+    
+    public void setElapsedMillis(long elapsedMillis) {
+        this.elapsedMillis = elapsedMillis;
+    }
+    
+    public long getRowsPerSecond() {
+        return rowsPerSecond;
+    }
+    
+    public void setRowsPerSecond(long rowsPerSecond) {
+        this.rowsPerSecond = rowsPerSecond;
+    }
+}
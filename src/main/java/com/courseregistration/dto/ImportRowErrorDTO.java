@@ -0,0 +1,42 @@
+package com.courseregistration.dto;
+
+public class ImportRowErrorDTO {
+    
+    private long row;
+    private String id;
+    private String message;
+    
+    // Constructors
+    public ImportRowErrorDTO() {}
+    
+    public ImportRowErrorDTO(long row, String id, String message) {
+        this.row = row;
+        this.id = id;
+        this.message = message;
+    }
+    
+    // Getters and Setters
+    public long getRow() {
+        return row;
+    }
+    
+    public void setRow(long row) {
+        this.row = row;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public void setId(String id) {
+        this.id = id;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
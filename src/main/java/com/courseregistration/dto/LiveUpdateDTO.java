@@ -0,0 +1,40 @@
+package com.courseregistration.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// One coalesced batch of changes pushed over /api/registrations/updates; only the latest state of each subject and registration is included
+public class LiveUpdateDTO {
+    
+    private List<SubjectStatsDTO> subjects = new ArrayList<>();
+    private List<String> deletedSubjectIds = new ArrayList<>();
+    private List<RegistrationDTO> registrations = new ArrayList<>();
+    
+    // Constructors
+    public LiveUpdateDTO() {}
+    
+    // Getters and Setters
+    public List<SubjectStatsDTO> getSubjects() {
+        return subjects;
+    }
+    
+    public void setSubjects(List<SubjectStatsDTO> subjects) {
+        this.subjects = subjects;
+    }
+    
+    public List<String> getDeletedSubjectIds() {
+        return deletedSubjectIds;
+    }
+    
+    public void setDeletedSubjectIds(List<String> deletedSubjectIds) {
+        this.deletedSubjectIds = deletedSubjectIds;
+    }
+    
+    public List<RegistrationDTO> getRegistrations() {
+        return registrations;
+    }
+    
+    public void setRegistrations(List<RegistrationDTO> registrations) {
+        this.registrations = registrations;
+    }
+}
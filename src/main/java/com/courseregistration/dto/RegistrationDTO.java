@@ -23,6 +23,12 @@ public class RegistrationDTO {
     private String studentName;
     private String subjectName;
     
+    // 1-based place in the subject's waitlist, only set by the waitlist endpoints
+    private Long waitlistPosition;
+    
+    // Optimistic-lock version of the registration row
+    private Long version;
+    
     // Constructors
     public RegistrationDTO() {}
     
@@ -33,6 +39,19 @@ public class RegistrationDTO {
         this.status = RegistrationStatus.ACTIVE;
     }
     
+    // Read-side constructor projection used by RegistrationRepository, names joined in the same query
+    public RegistrationDTO(Long id, String studentId, String subjectId, LocalDateTime registrationDate,
+                           RegistrationStatus status, String studentName, String subjectName, Long version) {
+        this.id = id;
+        this.studentId = studentId;
+        this.subjectId = subjectId;
+        this.registrationDate = registrationDate;
+        this.status = status;
+        this.studentName = studentName;
+        this.subjectName = subjectName;
+        this.version = version;
+    }
+    
     // Getters and Setters
     public Long getId() {
         return id;
@@ -89,4 +108,20 @@ public class RegistrationDTO {
     public void setSubjectName(String subjectName) {
         this.subjectName = subjectName;
     }
+    
+    public Long getWaitlistPosition() {
+        return waitlistPosition;
+    }
+    
+    public void setWaitlistPosition(Long waitlistPosition) {
+        this.waitlistPosition = waitlistPosition;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
 }
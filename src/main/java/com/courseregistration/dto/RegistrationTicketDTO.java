@@ -0,0 +1,109 @@
+package com.courseregistration.dto;
+
+import java.time.LocalDateTime;
+
+// State of a registration submitted with async=true, polled through /api/registrations/tickets/{ticketId}
+public class RegistrationTicketDTO {
+    
+    public enum Status {
+        QUEUED,
+        REGISTERED,
+        WAITLISTED,
+        REJECTED,
+        FAILED
+    }
+    
+    private String ticketId;
+    private Status status;
+    private String studentId;
+    private String subjectId;
+    private LocalDateTime submittedAt;
+    private LocalDateTime processedAt;
+    private String outcome;
+    private String message;
+    private RegistrationDTO registration;
+    
+    // Constructors
+    public RegistrationTicketDTO() {}
+    
+    public RegistrationTicketDTO(String ticketId, String studentId, String subjectId) {
+        this.ticketId = ticketId;
+        this.status = Status.QUEUED;
+        this.studentId = studentId;
+        this.subjectId = subjectId;
+        this.submittedAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public String getTicketId() {
+        return ticketId;
+    }
+    
+    public void setTicketId(String ticketId) {
+        this.ticketId = ticketId;
+    }
+    
+    public Status getStatus() {
+        return status;
+    }
+    
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+    
+    public String getStudentId() {
+        return studentId;
+    }
+    
+    public void setStudentId(String studentId) {
+        this.studentId = studentId;
+    }
+    
+    public String getSubjectId() {
+        return subjectId;
+    }
+    
+    public void setSubjectId(String subjectId) {
+        this.subjectId = subjectId;
+    }
+    
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+    
+    public void setSubmittedAt(LocalDateTime submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+    
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+    
+    public String getOutcome() {
+        return outcome;
+    }
+    
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+    
+    public RegistrationDTO getRegistration() {
+        return registration;
+    }
+    
+    public void setRegistration(RegistrationDTO registration) {
+        this.registration = registration;
+    }
+}
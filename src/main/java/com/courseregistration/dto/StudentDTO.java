@@ -35,6 +35,9 @@ public class StudentDTO {
     @Size(max = 100, message = "Email must not exceed 100 characters")
     private String email;
     
+    // Optional on updates: when sent, the update is rejected if the record changed since this version was read
+    private Long version;
+    
     // Constructors
     public StudentDTO() {}
     
@@ -49,6 +52,13 @@ public class StudentDTO {
         this.email = email;
     }
     
+    // Read-side constructor projection used by StudentRepository
+    public StudentDTO(String studentId, String title, String firstName, String lastName,
+                      LocalDate dateOfBirth, String currentSchool, String email, Long version) {
+        this(studentId, title, firstName, lastName, dateOfBirth, currentSchool, email);
+        this.version = version;
+    }
+    
     // Getters and Setters
     public String getStudentId() {
         return studentId;
@@ -106,6 +116,14 @@ public class StudentDTO {
         this.email = email;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     // Helper methods
     public int getAge() {
         return LocalDate.now().getYear() - dateOfBirth.getYear();
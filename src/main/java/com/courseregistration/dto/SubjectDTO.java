@@ -27,6 +27,9 @@ public class SubjectDTO {
     
     private Integer currentEnrollment = 0;
     
+    // Optional on updates: when sent, the update is rejected if the record changed since this version was read
+    private Long version;
+    
     // Constructors
     public SubjectDTO() {}
     
@@ -41,6 +44,14 @@ public class SubjectDTO {
         this.currentEnrollment = 0;
     }
     
+    // Read-side constructor projection used by SubjectRepository
+    public SubjectDTO(String subjectId, String subjectName, Integer credits, String instructorName,
+                      String prerequisiteSubjectId, Integer maxCapacity, Integer currentEnrollment, Long version) {
+        this(subjectId, subjectName, credits, instructorName, prerequisiteSubjectId, maxCapacity);
+        this.currentEnrollment = currentEnrollment;
+        this.version = version;
+    }
+    
     // Getters and Setters
     public String getSubjectId() {
         return subjectId;
@@ -98,6 +109,14 @@ public class SubjectDTO {
         this.currentEnrollment = currentEnrollment;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     // Helper methods
     public boolean isAvailable() {
         return maxCapacity == -1 || currentEnrollment < maxCapacity;
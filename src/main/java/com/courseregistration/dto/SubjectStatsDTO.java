@@ -0,0 +1,100 @@
+package com.courseregistration.dto;
+
+public class SubjectStatsDTO {
+    
+    private String subjectId;
+    private String subjectName;
+    private Integer maxCapacity;
+    private long activeRegistrations;
+    private long waitlistedRegistrations;
+    private long cancelledRegistrations;
+    private long completedRegistrations;
+    
+    // Active registrations over capacity, null for subjects without a capacity limit
+    private Double fillRate;
+    
+    // New registrations, including waitlisted ones, over the last 60 minutes
+    private long registrationsLastHour;
+    
+    // Constructors
+    public SubjectStatsDTO() {}
+    
+    public SubjectStatsDTO(String subjectId, String subjectName, Integer maxCapacity) {
+        this.subjectId = subjectId;
+        this.subjectName = subjectName;
+        this.maxCapacity = maxCapacity;
+    }
+    
+    // Getters and Setters
+    public String getSubjectId() {
+        return subjectId;
+    }
+    
+    public void setSubjectId(String subjectId) {
+        this.subjectId = subjectId;
+    }
+    
+    public String getSubjectName() {
+        return subjectName;
+    }
+    
+    public void setSubjectName(String subjectName) {
+        this.subjectName = subjectName;
+    }
+    
+    public Integer getMaxCapacity() {
+        return maxCapacity;
+    }
+    
+    public void setMaxCapacity(Integer maxCapacity) {
+        this.maxCapacity = maxCapacity;
+    }
+    
+    public long getActiveRegistrations() {
+        return activeRegistrations;
+    }
+    
+    public void setActiveRegistrations(long activeRegistrations) {
+        this.activeRegistrations = activeRegistrations;
+    }
+    
+    public long getWaitlistedRegistrations() {
+        return waitlistedRegistrations;
+    }
+    
+    public void setWaitlistedRegistrations(long waitlistedRegistrations) {
+        this.waitlistedRegistrations = waitlistedRegistrations;
+    }
+    
+    public long getCancelledRegistrations() {
+        return cancelledRegistrations;
+    }
+    
+    public void setCancelledRegistrations(long cancelledRegistrations) {
+        this.cancelledRegistrations = cancelledRegistrations;
+    }
+    
+    public long getCompletedRegistrations() {
+        return completedRegistrations;
+    }
+    
+    public void setCompletedRegistrations(long completedRegistrations) {
+        this.completedRegistrations = completedRegistrations;
+    }
+    
+    public Double getFillRate() {
+        return fillRate;
+    }
+    
+    public void setFillRate(Double fillRate) {
+        this.fillRate = fillRate;
+    }
+    
+    public long getRegistrationsLastHour() {
+        return registrationsLastHour;
+    }
+    
+    public void setRegistrationsLastHour(long registrationsLastHour) {
+        this.registrationsLastHour = registrationsLastHour;
+    }
+}
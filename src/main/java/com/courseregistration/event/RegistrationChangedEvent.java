@@ -0,0 +1,29 @@
+package com.courseregistration.event;
+
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.model.RegistrationStatus;
+
+// Published by RegistrationService whenever a registration is created or changes status;
+// previousStatus is null for a new registration
+public class RegistrationChangedEvent {
+    
+    private final RegistrationDTO registration;
+    private final RegistrationStatus previousStatus;
+    
+    public RegistrationChangedEvent(RegistrationDTO registration, RegistrationStatus previousStatus) {
+        this.registration = registration;
+        this.previousStatus = previousStatus;
+    }
+    
+    public RegistrationDTO getRegistration() {
+        return registration;
+    }
+    
+    public RegistrationStatus getPreviousStatus() {
+        return previousStatus;
+    }
+    
+    public boolean isNew() {
+        return previousStatus == null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.courseregistration.event;
+
+// Published whenever a subject's seat counter is written, with the counter as the writing transaction
+// read it back right after its conditional update. seatVersion goes up with every such update, so a
+// listener applying events out of commit order can tell the newer count from the older one.
+public class SeatsChangedEvent {
+    
+    private final String subjectId;
+    private final int currentEnrollment;
+    private final long seatVersion;
+    
+    public SeatsChangedEvent(String subjectId, Integer currentEnrollment, Long seatVersion) {
+        this.subjectId = subjectId;
+        this.currentEnrollment = currentEnrollment;
+        this.seatVersion = seatVersion;
+    }
+    
+    public String getSubjectId() {
+        return subjectId;
+    }
+    
+    public int getCurrentEnrollment() {
+        return currentEnrollment;
+    }
+    
+    public long getSeatVersion() {
+        return seatVersion;
+    }
+}
@@ -0,0 +1,42 @@
+package com.courseregistration.event;
+
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.StudentDTO;
+
+import java.util.Collections;
+import java.util.List;
+
+// Published by StudentService on every student write; student is null when the student was deleted,
+// and removedRegistrations then lists the registrations the delete cascaded away
+public class StudentChangedEvent {
+    
+    private final String studentId;
+    private final StudentDTO student;
+    private final List<RegistrationDTO> removedRegistrations;
+    
+    public StudentChangedEvent(String studentId, StudentDTO student) {
+        this(studentId, student, Collections.emptyList());
+    }
+    
+    public StudentChangedEvent(String studentId, StudentDTO student, List<RegistrationDTO> removedRegistrations) {
+        this.studentId = studentId;
+        this.student = student;
+        this.removedRegistrations = removedRegistrations;
+    }
+    
+    public String getStudentId() {
+        return studentId;
+    }
+    
+    public StudentDTO getStudent() {
+        return student;
+    }
+    
+    public List<RegistrationDTO> getRemovedRegistrations() {
+        return removedRegistrations;
+    }
+    
+    public boolean isDeleted() {
+        return student == null;
+    }
+}
@@ -0,0 +1,27 @@
+package com.courseregistration.event;
+
+import com.courseregistration.dto.SubjectDTO;
+
+// Published by SubjectService on every catalog write; subject is null when the subject was deleted
+public class SubjectChangedEvent {
+    
+    private final String subjectId;
+    private final SubjectDTO subject;
+    
+    public SubjectChangedEvent(String subjectId, SubjectDTO subject) {
+        this.subjectId = subjectId;
+        this.subject = subject;
+    }
+    
+    public String getSubjectId() {
+        return subjectId;
+    }
+    
+    public SubjectDTO getSubject() {
+        return subject;
+    }
+    
+    public boolean isDeleted() {
+        return subject == null;
+    }
+}
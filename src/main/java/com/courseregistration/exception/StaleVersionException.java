@@ -0,0 +1,11 @@
+package com.courseregistration.exception;
+
+import org.springframework.dao.OptimisticLockingFailureException;
+
+// The client updated a record from an outdated version; retrying on the server cannot fix that, only re-reading can
+public class StaleVersionException extends OptimisticLockingFailureException {
+    
+    public StaleVersionException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,184 @@
+package com.courseregistration.idempotency;
+
+import com.courseregistration.dto.ApiResponse;
+import com.courseregistration.metrics.SqlStatementCountAdvice;
+import com.courseregistration.web.CachedBodyRequest;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Deduplicates retried writes to /api/registrations that carry an Idempotency-Key header. The first
+// request runs and its response is stored; retries with the same key and the same request are answered
+// from the store without reaching the controller or the database. Reusing a key for a different request
+// is rejected with 422. Server errors are not stored, so the client can retry them. The replay carries
+// the original headers, such as Location, ETag and X-Consistency-Token. Keys are scoped to the caller:
+// the authenticated user, or else the students the request acts for, read from the request itself so a
+// retry from another address or through a shared proxy still finds its response. That is the studentId
+// of a registration, every studentId of a batch, or the registration in the path of a cancel or complete.
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    
+    public static final String HEADER = "Idempotency-Key";
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    
+    private static final int MAX_KEY_LENGTH = 255;
+    // Describe the body, the connection or the work of this particular request rather than the outcome
+    private static final Set<String> UNREPLAYED_HEADERS = Stream.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.CONTENT_TYPE,
+            HttpHeaders.TRANSFER_ENCODING, HttpHeaders.DATE, HttpHeaders.CONNECTION, SqlStatementCountAdvice.HEADER)
+            .map(name -> name.toLowerCase(Locale.ROOT))
+            .collect(Collectors.toSet());
+    private static final long IN_FLIGHT_WAIT_SECONDS = 30;
+    
+    @Autowired
+    private IdempotencyStore idempotencyStore;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String method = request.getMethod();
+        return !("POST".equals(method) || "PUT".equals(method))
+                || !request.getRequestURI().startsWith(request.getContextPath() + "/api/registrations/")
+                || request.getHeader(HEADER) == null;
+    }
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER).trim();
+        if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+            writeError(response, HttpStatus.BAD_REQUEST, HEADER + " must be between 1 and " + MAX_KEY_LENGTH + " characters");
+            return;
+        }
+        
+        byte[] body = StreamUtils.copyToByteArray(request.getInputStream());
+        key = scope(request, body) + ' ' + key;
+        IdempotencyStore.Entry entry = new IdempotencyStore.Entry(fingerprint(request, body));
+        IdempotencyStore.Entry existing = idempotencyStore.claim(key, entry);
+        if (existing != null) {
+            replay(existing, entry.getFingerprint(), response);
+            return;
+        }
+        
+        ContentCachingResponseWrapper responseWrapper = new ContentCachingResponseWrapper(response);
+        try {
+            filterChain.doFilter(new CachedBodyRequest(request, body), responseWrapper);
+        } catch (IOException | ServletException | RuntimeException e) {
+            idempotencyStore.release(key, entry);
+            entry.getResponse().completeExceptionally(e);
+            throw e;
+        }
+        
+        IdempotencyStore.StoredResponse stored = new IdempotencyStore.StoredResponse(responseWrapper.getStatus(),
+                responseWrapper.getContentType(), replayedHeaders(responseWrapper), responseWrapper.getContentAsByteArray());
+        if (stored.getStatus() >= 500) {
+            idempotencyStore.release(key, entry);
+        }
+        entry.getResponse().complete(stored);
+        responseWrapper.copyBodyToResponse();
+    }
+    
+    private void replay(IdempotencyStore.Entry existing, String fingerprint, HttpServletResponse response) throws IOException {
+        if (!existing.getFingerprint().equals(fingerprint)) {
+            writeError(response, HttpStatus.UNPROCESSABLE_ENTITY, HEADER + " was already used for a different request");
+            return;
+        }
+        
+        IdempotencyStore.StoredResponse stored;
+        try {
+            stored = existing.getResponse().get(IN_FLIGHT_WAIT_SECONDS, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            writeError(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+            return;
+        } catch (TimeoutException e) {
+            writeError(response, HttpStatus.CONFLICT, "A request with this " + HEADER + " is still in progress");
+            return;
+        } catch (ExecutionException e) {
+            writeError(response, HttpStatus.CONFLICT, "The original request with this " + HEADER + " failed, please retry");
+            return;
+        }
+        
+        response.setStatus(stored.getStatus());
+        if (stored.getContentType() != null) {
+            response.setContentType(stored.getContentType());
+        }
+        stored.getHeaders().forEach((name, values) -> {
+            response.setHeader(name, values.get(0));
+            values.subList(1, values.size()).forEach(value -> response.addHeader(name, value));
+        });
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.getBody().length);
+        response.getOutputStream().write(stored.getBody());
+    }
+    
+    private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.getOutputStream().write(objectMapper.writeValueAsBytes(ApiResponse.error(message)));
+    }
+    
+    private String scope(HttpServletRequest request, byte[] body) {
+        Principal principal = request.getUserPrincipal();
+        if (principal != null) {
+            return "user:" + principal.getName();
+        }
+        Set<String> studentIds = new TreeSet<>();
+        try {
+            JsonNode json = objectMapper.readTree(body);
+            if (json != null) {
+                for (JsonNode entry : json.isArray() ? json : Collections.singletonList(json)) {
+                    JsonNode studentId = entry.path("studentId");
+                    if (studentId.isTextual()) {
+                        studentIds.add(studentId.asText());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            // Malformed bodies are answered with 400 by the controller, scoped by their target like a bodiless write
+        }
+        return !studentIds.isEmpty() ? "students:" + String.join(",", studentIds) : "target:" + request.getRequestURI();
+    }
+    
+    private static HttpHeaders replayedHeaders(HttpServletResponse response) {
+        HttpHeaders headers = new HttpHeaders();
+        for (String name : response.getHeaderNames()) {
+            if (!UNREPLAYED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.put(name, new ArrayList<>(response.getHeaders(name)));
+            }
+        }
+        return headers;
+    }
+    
+    private static String fingerprint(HttpServletRequest request, byte[] body) {
+        String query = request.getQueryString();
+        return request.getMethod() + ' ' + request.getRequestURI() + (query != null ? '?' + query : "")
+                + ' ' + DigestUtils.md5DigestAsHex(body);
+    }
+}
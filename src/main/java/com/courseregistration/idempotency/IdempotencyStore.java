@@ -0,0 +1,101 @@
+package com.courseregistration.idempotency;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+
+// Responses of requests carrying an Idempotency-Key, bounded and expiring. The entry is created before
+// the request runs, so a retry arriving while the original is still in flight waits for its outcome.
+@Component
+public class IdempotencyStore {
+    
+    @Value("${app.idempotency.max-size:50000}")
+    private long maxSize;
+    
+    @Value("${app.idempotency.ttl:1h}")
+    private Duration ttl;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Cache<String, Entry> entries;
+    
+    @PostConstruct
+    public void init() {
+        entries = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, entries, "idempotency");
+    }
+    
+    // Returns the existing entry for the key, or registers and returns null if this request is the first
+    public Entry claim(String key, Entry entry) {
+        return entries.asMap().putIfAbsent(key, entry);
+    }
+    
+    // Forgets the entry so the key can be used again, e.g. after a server error
+    public void release(String key, Entry entry) {
+        entries.asMap().remove(key, entry);
+    }
+    
+    public static class Entry {
+        
+        private final String fingerprint;
+        private final CompletableFuture<StoredResponse> response = new CompletableFuture<>();
+        
+        public Entry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+        
+        public String getFingerprint() {
+            return fingerprint;
+        }
+        
+        public CompletableFuture<StoredResponse> getResponse() {
+            return response;
+        }
+    }
+    
+    public static class StoredResponse {
+        
+        private final int status;
+        private final String contentType;
+        private final HttpHeaders headers;
+        private final byte[] body;
+        
+        public StoredResponse(int status, String contentType, HttpHeaders headers, byte[] body) {
+            this.status = status;
+            this.contentType = contentType;
+            this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+            this.body = Arrays.copyOf(body, body.length);
+        }
+        
+        public int getStatus() {
+            return status;
+        }
+        
+        public String getContentType() {
+            return contentType;
+        }
+        
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+        
+        public byte[] getBody() {
+            return body;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.courseregistration.importer;
+
+import com.courseregistration.dto.ImportReportDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.List;
+
+// Command-line bulk import: java -jar app.jar --import.subjects=subjects.csv --import.students=students.csv
+// Imports the files once the application has started, logs each report as JSON and exits. The exit
+// code is 1 if a file could not be imported at all; rejected rows are only listed in the report.
+@Component
+public class BulkImportRunner implements ApplicationRunner {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportRunner.class);
+    
+    public static final String SUBJECTS_OPTION = "import.subjects";
+    public static final String STUDENTS_OPTION = "import.students";
+    
+    @Autowired
+    private BulkImportService bulkImportService;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private ApplicationContext context;
+    
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!args.containsOption(SUBJECTS_OPTION) && !args.containsOption(STUDENTS_OPTION)) {
+            return;
+        }
+        boolean failed = false;
+        for (String file : files(args, SUBJECTS_OPTION)) {
+            failed |= !importFile(file, true);
+        }
+        for (String file : files(args, STUDENTS_OPTION)) {
+            failed |= !importFile(file, false);
+        }
+        int exitCode = failed ? 1 : 0;
+        System.exit(SpringApplication.exit(context, () -> exitCode));
+    }
+    
+    private boolean importFile(String file, boolean subjects) {
+        try (InputStream input = Files.newInputStream(Paths.get(file))) {
+            ImportReportDTO report = subjects ? bulkImportService.importSubjects(input) : bulkImportService.importStudents(input);
+            logger.info("Imported {}:\n{}", file, objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(report));
+            return true;
+        } catch (NoSuchFileException e) {
+            logger.error("Could not import {}: file not found", file);
+            return false;
+        } catch (Exception e) {
+            logger.error("Could not import {}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+    
+    private static List<String> files(ApplicationArguments args, String option) {
+        List<String> values = args.getOptionValues(option);
+        return values != null ? values : Collections.emptyList();
+    }
+}
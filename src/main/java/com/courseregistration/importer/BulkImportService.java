@@ -0,0 +1,469 @@
+package com.courseregistration.importer;
+
+import com.courseregistration.config.CacheConfig;
+import com.courseregistration.dto.ImportReportDTO;
+import com.courseregistration.dto.ImportRowErrorDTO;
+import com.courseregistration.dto.StudentDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.event.StudentChangedEvent;
+import com.courseregistration.event.SubjectChangedEvent;
+import com.courseregistration.repository.StudentRepository;
+import com.courseregistration.repository.SubjectRepository;
+import com.courseregistration.service.PrerequisiteGraph;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.validation.ConstraintViolation;
+import javax.validation.Path;
+import javax.validation.TraversableResolver;
+import javax.validation.Validation;
+import javax.validation.Validator;
+import javax.validation.ValidatorFactory;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.annotation.ElementType;
+import java.sql.Date;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+// Streams students or subjects from CSV into the database in chunks of app.bulk-import.chunk-size rows.
+// Each chunk is validated, checked for duplicates within itself and against the database with one
+// set-based query per key, and inserted with one JDBC batch in its own transaction, so memory stays at
+// one chunk and a bad row only costs itself. Earlier chunks are committed by then, which also catches
+// duplicates across chunks. The usual change events are published once a chunk has committed; every
+// listener runs them directly then, instead of registering one transaction callback per row.
+@Service
+public class BulkImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BulkImportService.class);
+    
+    public static final List<String> STUDENT_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            "studentId", "title", "firstName", "lastName", "dateOfBirth", "currentSchool", "email"));
+    public static final List<String> SUBJECT_COLUMNS = Collections.unmodifiableList(Arrays.asList(
+            "subjectId", "subjectName", "credits", "instructorName", "prerequisiteSubjectId", "maxCapacity"));
+    
+    // Columns that may be left out of the header
+    private static final Set<String> OPTIONAL_COLUMNS = Collections.singleton("prerequisiteSubjectId");
+    
+    private static final String INSERT_STUDENT = "INSERT INTO students (student_id, title, first_name, last_name, " +
+            "date_of_birth, current_school, email, version) VALUES (?, ?, ?, ?, ?, ?, ?, 0)";
+    private static final String INSERT_SUBJECT = "INSERT INTO subjects (subject_id, subject_name, credits, instructor_name, " +
+            "prerequisite_subject_id, max_capacity, current_enrollment, version) VALUES (?, ?, ?, ?, ?, ?, 0, 0)";
+    
+    @Value("${app.bulk-import.chunk-size:1000}")
+    private int chunkSize;
+    
+    @Value("${app.bulk-import.max-errors:100}")
+    private int maxErrors;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private SubjectRepository subjectRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private PrerequisiteGraph prerequisiteGraph;
+    
+    private TransactionTemplate transactionTemplate;
+    private ValidatorFactory validatorFactory;
+    private Validator validator;
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        // The rows are plain DTOs, so skip the JPA lazy-loading checks the default validator makes per property
+        validatorFactory = Validation.byDefaultProvider().configure()
+                .traversableResolver(new TraverseAll())
+                .buildValidatorFactory();
+        validator = validatorFactory.getValidator();
+    }
+    
+    @PreDestroy
+    public void close() {
+        validatorFactory.close();
+    }
+    
+    // Throws IllegalArgumentException when the header is missing or lacks a required column
+    public ImportReportDTO importStudents(InputStream input) throws IOException {
+        return importCsv(input, "students", STUDENT_COLUMNS, BulkImportService::parseStudent, this::insertStudents, this::publishStudents);
+    }
+    
+    // Throws IllegalArgumentException when the header is missing or lacks a required column
+    public ImportReportDTO importSubjects(InputStream input) throws IOException {
+        return importCsv(input, "subjects", SUBJECT_COLUMNS, BulkImportService::parseSubject, this::insertSubjects, this::publishSubjects);
+    }
+    
+    private <T> ImportReportDTO importCsv(InputStream input, String entity, List<String> columns,
+                                          RowParser<T> parser, ChunkWriter<T> writer, Consumer<List<T>> afterCommit) throws IOException {
+        long started = System.nanoTime();
+        ImportReportDTO report = new ImportReportDTO(entity);
+        try (CsvReader reader = new CsvReader(input)) {
+            List<String> header = reader.next();
+            if (header == null) {
+                throw new IllegalArgumentException("The CSV file is empty; expected a header row with " + String.join(",", columns));
+            }
+            Fields fields = new Fields(header, columns);
+            List<Row<T>> chunk = new ArrayList<>(chunkSize);
+            while (true) {
+                List<String> record;
+                try {
+                    record = reader.next();
+                } catch (CsvReader.MalformedCsvException e) {
+                    report.setRowsRead(report.getRowsRead() + 1);
+                    reject(report, new ImportRowErrorDTO(reader.getRecordNumber() + 1, null, e.getMessage()));
+                    break;
+                }
+                if (record == null) {
+                    break;
+                }
+                report.setRowsRead(report.getRowsRead() + 1);
+                Row<T> row = parseRow(reader.getRecordNumber(), record, header.size(), fields, parser, report);
+                if (row != null) {
+                    chunk.add(row);
+                }
+                if (chunk.size() == chunkSize) {
+                    writeChunk(chunk, writer, afterCommit, report);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                writeChunk(chunk, writer, afterCommit, report);
+            }
+        }
+        
+        report.getErrors().sort(Comparator.comparingLong(ImportRowErrorDTO::getRow));
+        long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        report.setElapsedMillis(elapsedMillis);
+        report.setRowsPerSecond(report.getRowsRead() * 1000 / Math.max(elapsedMillis, 1));
+        logger.info("Imported {} of {} {} in {} ms ({} rows/s), {} rejected", report.getImported(), report.getRowsRead(),
+                entity, elapsedMillis, report.getRowsPerSecond(), report.getRejected());
+        return report;
+    }
+    
+    private <T> Row<T> parseRow(long number, List<String> record, int expectedFields, Fields fields,
+                                RowParser<T> parser, ImportReportDTO report) {
+        String id = fields.get(record, 0);
+        if (record.size() != expectedFields) {
+            reject(report, new ImportRowErrorDTO(number, id, "Expected " + expectedFields + " fields but found " + record.size()));
+            return null;
+        }
+        T value;
+        try {
+            value = parser.parse(record, fields);
+        } catch (IllegalArgumentException e) {
+            reject(report, new ImportRowErrorDTO(number, id, e.getMessage()));
+            return null;
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(value);
+        if (!violations.isEmpty()) {
+            reject(report, new ImportRowErrorDTO(number, id, violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; "))));
+            return null;
+        }
+        return new Row<>(number, id, value);
+    }
+    
+    // One transaction for the whole chunk. If a concurrent write makes the batch fail, the chunk is
+    // retried a row per transaction so only the conflicting rows are rejected.
+    private <T> void writeChunk(List<Row<T>> chunk, ChunkWriter<T> writer, Consumer<List<T>> afterCommit, ImportReportDTO report) {
+        List<ImportRowErrorDTO> rejections = new ArrayList<>();
+        try {
+            List<T> inserted = transactionTemplate.execute(status -> writer.write(chunk, rejections));
+            report.setImported(report.getImported() + inserted.size());
+            rejections.forEach(error -> reject(report, error));
+            afterCommit.accept(inserted);
+            return;
+        } catch (DataIntegrityViolationException e) {
+            logger.debug("Import batch conflicted with a concurrent write, retrying row by row", e);
+        }
+        for (Row<T> row : chunk) {
+            List<ImportRowErrorDTO> rowRejections = new ArrayList<>();
+            try {
+                List<T> inserted = transactionTemplate.execute(status -> writer.write(Collections.singletonList(row), rowRejections));
+                report.setImported(report.getImported() + inserted.size());
+                rowRejections.forEach(error -> reject(report, error));
+                afterCommit.accept(inserted);
+            } catch (DataIntegrityViolationException e) {
+                reject(report, new ImportRowErrorDTO(row.number, row.id, "Conflicts with a concurrent change: " + e.getMostSpecificCause().getMessage()));
+            }
+        }
+    }
+    
+    private List<StudentDTO> insertStudents(List<Row<StudentDTO>> rows, List<ImportRowErrorDTO> rejections) {
+        Set<String> ids = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        for (Row<StudentDTO> row : rows) {
+            ids.add(row.value.getStudentId());
+            emails.add(row.value.getEmail());
+        }
+        Set<String> existingIds = new HashSet<>(studentRepository.findExistingIds(ids));
+        Set<String> existingEmails = new HashSet<>(studentRepository.findExistingEmails(emails));
+        
+        List<StudentDTO> accepted = new ArrayList<>(rows.size());
+        Set<String> acceptedIds = new HashSet<>();
+        Set<String> acceptedEmails = new HashSet<>();
+        for (Row<StudentDTO> row : rows) {
+            StudentDTO student = row.value;
+            if (existingIds.contains(student.getStudentId()) || !acceptedIds.add(student.getStudentId())) {
+                rejections.add(new ImportRowErrorDTO(row.number, row.id, "Student with ID " + student.getStudentId() + " already exists"));
+            } else if (existingEmails.contains(student.getEmail()) || !acceptedEmails.add(student.getEmail())) {
+                acceptedIds.remove(student.getStudentId());
+                rejections.add(new ImportRowErrorDTO(row.number, row.id, "Student with email " + student.getEmail() + " already exists"));
+            } else {
+                accepted.add(student);
+            }
+        }
+        
+        if (accepted.isEmpty()) {
+            return accepted;
+        }
+        jdbcTemplate.batchUpdate(INSERT_STUDENT, accepted, accepted.size(), (statement, student) -> {
+            statement.setString(1, student.getStudentId());
+            statement.setString(2, student.getTitle());
+            statement.setString(3, student.getFirstName());
+            statement.setString(4, student.getLastName());
+            statement.setDate(5, Date.valueOf(student.getDateOfBirth()));
+            statement.setString(6, student.getCurrentSchool());
+            statement.setString(7, student.getEmail());
+        });
+        return accepted;
+    }
+    
+    private void publishStudents(List<StudentDTO> students) {
+        for (StudentDTO student : students) {
+            student.setVersion(0L);
+            eventPublisher.publishEvent(new StudentChangedEvent(student.getStudentId(), student));
+        }
+    }
+    
+    private List<SubjectDTO> insertSubjects(List<Row<SubjectDTO>> rows, List<ImportRowErrorDTO> rejections) {
+        // Subject IDs and prerequisites in one lookup; a prerequisite may also be an earlier row of the file
+        Set<String> ids = new HashSet<>();
+        for (Row<SubjectDTO> row : rows) {
+            ids.add(row.value.getSubjectId());
+            if (row.value.hasPrerequisite()) {
+                ids.add(row.value.getPrerequisiteSubjectId());
+            }
+        }
+        Set<String> existingIds = new HashSet<>(subjectRepository.findExistingIds(ids));
+        
+        List<SubjectDTO> accepted = new ArrayList<>(rows.size());
+        Set<String> acceptedIds = new HashSet<>();
+        for (Row<SubjectDTO> row : rows) {
+            SubjectDTO subject = row.value;
+            if (existingIds.contains(subject.getSubjectId()) || acceptedIds.contains(subject.getSubjectId())) {
+                rejections.add(new ImportRowErrorDTO(row.number, row.id, "Subject with ID " + subject.getSubjectId() + " already exists"));
+            } else if (subject.hasPrerequisite() && !existingIds.contains(subject.getPrerequisiteSubjectId())
+                    && !acceptedIds.contains(subject.getPrerequisiteSubjectId())) {
+                rejections.add(new ImportRowErrorDTO(row.number, row.id, "Prerequisite subject with ID " + subject.getPrerequisiteSubjectId() + " does not exist"));
+            } else {
+                // Prerequisites only point at subjects that already exist, so an import cannot close a cycle
+                acceptedIds.add(subject.getSubjectId());
+                accepted.add(subject);
+            }
+        }
+        
+        if (accepted.isEmpty()) {
+            return accepted;
+        }
+        jdbcTemplate.batchUpdate(INSERT_SUBJECT, accepted, accepted.size(), (statement, subject) -> {
+            statement.setString(1, subject.getSubjectId());
+            statement.setString(2, subject.getSubjectName());
+            statement.setInt(3, subject.getCredits());
+            statement.setString(4, subject.getInstructorName());
+            if (subject.hasPrerequisite()) {
+                statement.setString(5, subject.getPrerequisiteSubjectId());
+            } else {
+                statement.setNull(5, Types.VARCHAR);
+            }
+            statement.setInt(6, subject.getMaxCapacity());
+        });
+        return accepted;
+    }
+    
+    private void publishSubjects(List<SubjectDTO> subjects) {
+        for (SubjectDTO subject : subjects) {
+            subject.setCurrentEnrollment(0);
+            subject.setVersion(0L);
+            eventPublisher.publishEvent(new SubjectChangedEvent(subject.getSubjectId(), subject));
+        }
+        // One rebuild per committed chunk, not one per imported subject
+        if (!subjects.isEmpty()) {
+            prerequisiteGraph.rebuild();
+        }
+        evictSubjectCaches(subjects);
+    }
+    
+    // Same caches createSubject evicts; a cached miss for a new ID would otherwise hide it
+    private void evictSubjectCaches(List<SubjectDTO> subjects) {
+        if (subjects.isEmpty()) {
+            return;
+        }
+        Cache byId = cacheManager.getCache(CacheConfig.SUBJECTS);
+        if (byId != null) {
+            subjects.forEach(subject -> byId.evict(subject.getSubjectId()));
+        }
+        for (String name : Arrays.asList(CacheConfig.SUBJECT_VIEWS, CacheConfig.AVAILABLE_SUBJECTS)) {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) {
+                cache.clear();
+            }
+        }
+    }
+    
+    private void reject(ImportReportDTO report, ImportRowErrorDTO error) {
+        report.setRejected(report.getRejected() + 1);
+        if (report.getErrors().size() < maxErrors) {
+            report.getErrors().add(error);
+        } else {
+            report.setErrorsTruncated(true);
+        }
+    }
+    
+    private static StudentDTO parseStudent(List<String> record, Fields fields) {
+        StudentDTO student = new StudentDTO();
+        student.setStudentId(fields.get(record, 0));
+        student.setTitle(fields.get(record, 1));
+        student.setFirstName(fields.get(record, 2));
+        student.setLastName(fields.get(record, 3));
+        student.setDateOfBirth(parseDate(fields.get(record, 4), "Date of birth"));
+        student.setCurrentSchool(fields.get(record, 5));
+        student.setEmail(fields.get(record, 6));
+        return student;
+    }
+    
+    private static SubjectDTO parseSubject(List<String> record, Fields fields) {
+        SubjectDTO subject = new SubjectDTO();
+        subject.setSubjectId(fields.get(record, 0));
+        subject.setSubjectName(fields.get(record, 1));
+        subject.setCredits(parseInteger(fields.get(record, 2), "Credits"));
+        subject.setInstructorName(fields.get(record, 3));
+        subject.setPrerequisiteSubjectId(fields.get(record, 4));
+        subject.setMaxCapacity(parseInteger(fields.get(record, 5), "Max capacity"));
+        return subject;
+    }
+    
+    private static LocalDate parseDate(String value, String name) {
+        try {
+            return value == null ? null : LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException(name + " must be a date like 2005-03-15");
+        }
+    }
+    
+    private static Integer parseInteger(String value, String name) {
+        try {
+            return value == null ? null : Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " must be a whole number");
+        }
+    }
+    
+    @FunctionalInterface
+    private interface RowParser<T> {
+        T parse(List<String> record, Fields fields);
+    }
+    
+    // Inserts what passes the duplicate checks and returns it; rejected rows go to rejections
+    @FunctionalInterface
+    private interface ChunkWriter<T> {
+        List<T> write(List<Row<T>> rows, List<ImportRowErrorDTO> rejections);
+    }
+    
+    private static final class TraverseAll implements TraversableResolver {
+        
+        @Override
+        public boolean isReachable(Object bean, Path.Node property, Class<?> rootType, Path path, ElementType elementType) {
+            return true;
+        }
+        
+        @Override
+        public boolean isCascadable(Object bean, Path.Node property, Class<?> rootType, Path path, ElementType elementType) {
+            return true;
+        }
+    }
+    
+    private static final class Row<T> {
+        
+        private final long number;
+        private final String id;
+        private final T value;
+        
+        Row(long number, String id, T value) {
+            this.number = number;
+            this.id = id;
+            this.value = value;
+        }
+    }
+    
+    // Maps the expected columns onto the header, matched ignoring case and underscores, in any order
+    private static final class Fields {
+        
+        private final int[] indexes;
+        
+        Fields(List<String> header, List<String> columns) {
+            indexes = new int[columns.size()];
+            List<String> normalized = header.stream().map(Fields::normalize).collect(Collectors.toList());
+            for (int i = 0; i < columns.size(); i++) {
+                indexes[i] = normalized.indexOf(normalize(columns.get(i)));
+                if (indexes[i] < 0 && !OPTIONAL_COLUMNS.contains(columns.get(i))) {
+                    throw new IllegalArgumentException("The CSV header is missing the " + columns.get(i) + " column; expected "
+                            + String.join(",", columns));
+                }
+            }
+        }
+        
+        // The trimmed value of the i-th expected column, or null when it is blank or absent
+        String get(List<String> record, int column) {
+            int index = indexes[column];
+            if (index < 0 || index >= record.size()) {
+                return null;
+            }
+            String value = record.get(index).trim();
+            return value.isEmpty() ? null : value;
+        }
+        
+        private static String normalize(String column) {
+            return column.trim().replace("_", "").toLowerCase(Locale.ROOT);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.courseregistration.importer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Incremental RFC 4180 reader over UTF-8 input. Quoted fields may hold commas, doubled quotes and line
+// breaks; blank lines are skipped. Only the current record is held, so memory stays flat however
+// large the input is.
+public class CsvReader implements Closeable {
+    
+    private final Reader reader;
+    private final char[] buffer = new char[8192];
+    private final StringBuilder field = new StringBuilder();
+    private int length;
+    private int position;
+    private boolean started;
+    private long recordNumber;
+    
+    public CsvReader(InputStream input) {
+        this.reader = new InputStreamReader(input, StandardCharsets.UTF_8);
+    }
+    
+    // The next record's fields, or null at the end of the input
+    public List<String> next() throws IOException {
+        List<String> fields = new ArrayList<>();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean wasQuoted = false;
+        while (true) {
+            int c = read();
+            if (quoted) {
+                if (c == -1) {
+                    throw new MalformedCsvException("Row " + (recordNumber + 1) + " has an unterminated quoted field");
+                }
+                if (c == '"') {
+                    if (peek() == '"') {
+                        read();
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                    }
+                } else {
+                    field.append((char) c);
+                }
+                continue;
+            }
+            if (c == '"' && field.length() == 0) {
+                quoted = true;
+                wasQuoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+                wasQuoted = false;
+            } else if (c == '\r' || c == '\n' || c == -1) {
+                if (c == '\r' && peek() == '\n') {
+                    read();
+                }
+                if (fields.isEmpty() && field.length() == 0 && !wasQuoted) {
+                    if (c == -1) {
+                        return null;
+                    }
+                    continue;
+                }
+                fields.add(field.toString());
+                recordNumber++;
+                return fields;
+            } else {
+                field.append((char) c);
+            }
+        }
+    }
+    
+    // 1-based number of the record last returned, counting the header
+    public long getRecordNumber() {
+        return recordNumber;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+    
+    private int read() throws IOException {
+        if (position == length && !fill()) {
+            return -1;
+        }
+        return buffer[position++];
+    }
+    
+    private int peek() throws IOException {
+        if (position == length && !fill()) {
+            return -1;
+        }
+        return buffer[position];
+    }
+    
+    private boolean fill() throws IOException {
+        length = reader.read(buffer);
+        position = 0;
+        if (length > 0 && !started) {
+            started = true;
+            // Spreadsheet exports often start with a byte order mark
+            if (buffer[0] == '\uFEFF') {
+                position = 1;
+                return length > 1 || fill();
+            }
+        }
+        return length > 0;
+    }
+    
+    public static class MalformedCsvException extends RuntimeException {
+        
+        public MalformedCsvException(String message) {
+            super(message);
+        }
+    }
+}
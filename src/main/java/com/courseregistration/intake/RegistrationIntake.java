@@ -0,0 +1,219 @@
+package com.courseregistration.intake;
+
+import com.courseregistration.dto.BatchRegistrationResultDTO;
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.RegistrationRequestDTO;
+import com.courseregistration.dto.RegistrationTicketDTO;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.service.RegistrationService;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Asynchronous registration intake. Requests are acknowledged with a ticket and queued in bounded
+// per-shard queues; every subject maps to one shard, so its requests are processed in arrival order.
+// Each shard's worker drains up to max-batch requests and registers them in one transaction through
+// RegistrationService.registerQueued, which reserves seats once per subject and batches the inserts.
+@Component
+public class RegistrationIntake {
+    
+    private static final Logger logger = LoggerFactory.getLogger(RegistrationIntake.class);
+    
+    @Value("${app.registration-intake.workers:4}")
+    private int workers;
+    
+    // Per shard
+    @Value("${app.registration-intake.queue-capacity:2500}")
+    private int queueCapacity;
+    
+    @Value("${app.registration-intake.max-batch:100}")
+    private int maxBatch;
+    
+    @Value("${app.registration-intake.ticket-ttl:1h}")
+    private Duration ticketTtl;
+    
+    @Autowired
+    private RegistrationService registrationService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Cache<String, RegistrationTicketDTO> tickets;
+    private List<BlockingQueue<Pending>> shards;
+    private List<Thread> threads;
+    private volatile boolean running;
+    
+    @PostConstruct
+    public void start() {
+        tickets = Caffeine.newBuilder()
+                .expireAfterWrite(ticketTtl)
+                .build();
+        shards = new ArrayList<>(workers);
+        threads = new ArrayList<>(workers);
+        running = true;
+        for (int i = 0; i < workers; i++) {
+            BlockingQueue<Pending> queue = new ArrayBlockingQueue<>(queueCapacity);
+            shards.add(queue);
+            Thread thread = new Thread(() -> drain(queue), "registration-intake-" + i);
+            thread.setDaemon(true);
+            threads.add(thread);
+            thread.start();
+        }
+        Gauge.builder("app.registration.intake.queued", shards,
+                        queues -> queues.stream().mapToInt(BlockingQueue::size).sum())
+                .description("Registrations waiting in the asynchronous intake")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        for (Thread thread : threads) {
+            thread.interrupt();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(10));
+        }
+        for (BlockingQueue<Pending> queue : shards) {
+            for (Pending pending : queue) {
+                finish(pending.ticket, RegistrationTicketDTO.Status.FAILED, null, "Server shut down before the registration was processed", null);
+            }
+        }
+    }
+    
+    // Throws IllegalStateException when the subject's shard is full, so the caller can ask the client to back off
+    public RegistrationTicketDTO submit(RegistrationRequestDTO request) {
+        RegistrationTicketDTO ticket = new RegistrationTicketDTO(UUID.randomUUID().toString(),
+                request.getStudentId(), request.getSubjectId());
+        tickets.put(ticket.getTicketId(), ticket);
+        BlockingQueue<Pending> queue = shards.get(Math.floorMod(request.getSubjectId().hashCode(), shards.size()));
+        if (!queue.offer(new Pending(request, ticket))) {
+            tickets.invalidate(ticket.getTicketId());
+            throw new IllegalStateException("Registration queue is full, please retry later");
+        }
+        return snapshot(ticket);
+    }
+    
+    public Optional<RegistrationTicketDTO> getTicket(String ticketId) {
+        return Optional.ofNullable(tickets.getIfPresent(ticketId)).map(this::snapshot);
+    }
+    
+    private void drain(BlockingQueue<Pending> queue) {
+        List<Pending> batch = new ArrayList<>(maxBatch);
+        while (running) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                logger.error("Registration intake worker failed", e);
+                for (Pending pending : batch) {
+                    finish(pending.ticket, RegistrationTicketDTO.Status.FAILED, null, "Error registering student: " + e.getMessage(), null);
+                }
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void process(List<Pending> batch) {
+        List<BatchRegistrationResultDTO> results;
+        try {
+            results = registrationService.registerQueued(batch.stream().map(pending -> pending.request).collect(Collectors.toList()));
+        } catch (RuntimeException e) {
+            // The batch raced a concurrent registration and rolled back; retry its items one transaction each
+            logger.debug("Queued batch of {} failed, registering individually: {}", batch.size(), e.getMessage());
+            processIndividually(batch);
+            return;
+        }
+        for (BatchRegistrationResultDTO result : results) {
+            RegistrationTicketDTO ticket = batch.get(result.getIndex()).ticket;
+            if (result.isSuccess()) {
+                finish(ticket, statusOf(result.getRegistration()), result.getOutcome(), result.getMessage(), result.getRegistration());
+            } else {
+                finish(ticket, RegistrationTicketDTO.Status.REJECTED, result.getOutcome(), result.getMessage(), null);
+            }
+        }
+    }
+    
+    private void processIndividually(List<Pending> batch) {
+        for (Pending pending : batch) {
+            try {
+                RegistrationDTO registration = registrationService.registerStudent(pending.request);
+                finish(pending.ticket, statusOf(registration), "ACCEPTED", registration.getStatus() == RegistrationStatus.WAITLISTED
+                        ? "Subject is full, student added to the waitlist" : "Student registered successfully", registration);
+            } catch (IllegalArgumentException e) {
+                finish(pending.ticket, RegistrationTicketDTO.Status.REJECTED, null, e.getMessage(), null);
+            } catch (RuntimeException e) {
+                finish(pending.ticket, RegistrationTicketDTO.Status.FAILED, null, "Error registering student: " + e.getMessage(), null);
+            }
+        }
+    }
+    
+    private static RegistrationTicketDTO.Status statusOf(RegistrationDTO registration) {
+        return registration.getStatus() == RegistrationStatus.WAITLISTED
+                ? RegistrationTicketDTO.Status.WAITLISTED : RegistrationTicketDTO.Status.REGISTERED;
+    }
+    
+    private void finish(RegistrationTicketDTO ticket, RegistrationTicketDTO.Status status, String outcome, String message,
+                        RegistrationDTO registration) {
+        synchronized (ticket) {
+            ticket.setStatus(status);
+            ticket.setOutcome(outcome);
+            ticket.setMessage(message);
+            ticket.setRegistration(registration);
+            ticket.setProcessedAt(LocalDateTime.now());
+        }
+    }
+    
+    // Tickets are updated by the workers, so readers get a consistent copy
+    private RegistrationTicketDTO snapshot(RegistrationTicketDTO ticket) {
+        synchronized (ticket) {
+            RegistrationTicketDTO copy = new RegistrationTicketDTO(ticket.getTicketId(), ticket.getStudentId(), ticket.getSubjectId());
+            copy.setStatus(ticket.getStatus());
+            copy.setSubmittedAt(ticket.getSubmittedAt());
+            copy.setProcessedAt(ticket.getProcessedAt());
+            copy.setOutcome(ticket.getOutcome());
+            copy.setMessage(ticket.getMessage());
+            copy.setRegistration(ticket.getRegistration());
+            return copy;
+        }
+    }
+    
+    private static class Pending {
+        
+        private final RegistrationRequestDTO request;
+        private final RegistrationTicketDTO ticket;
+        
+        Pending(RegistrationRequestDTO request, RegistrationTicketDTO ticket) {
+            this.request = request;
+            this.ticket = ticket;
+        }
+    }
+}
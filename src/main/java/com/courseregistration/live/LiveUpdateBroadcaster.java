@@ -0,0 +1,241 @@
+package com.courseregistration.live;
+
+import com.courseregistration.dto.LiveUpdateDTO;
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.SubjectStatsDTO;
+import com.courseregistration.event.RegistrationChangedEvent;
+import com.courseregistration.event.StudentChangedEvent;
+import com.courseregistration.event.SubjectChangedEvent;
+import com.courseregistration.stats.EnrollmentStatistics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Pushes seat availability and registration status changes to server-sent event clients. Committed
+// changes only mark the subject or registration as dirty for every client; a periodic flush sends each
+// client one "update" event with the latest state, so a burst on a popular subject costs one message.
+// Seat counts come from EnrollmentStatistics, so a flush runs no queries. Sends to one client never
+// overlap; changes keep coalescing while a slow client's send is blocked, and once its backlog exceeds
+// max-pending it is dropped and replaced by a "resync" event telling the client to reload.
+@Component
+public class LiveUpdateBroadcaster {
+    
+    public static final String UPDATE_EVENT = "update";
+    public static final String RESYNC_EVENT = "resync";
+    
+    @Value("${app.live-updates.max-clients:1000}")
+    private int maxClients;
+    
+    @Value("${app.live-updates.max-pending:500}")
+    private int maxPending;
+    
+    @Value("${app.live-updates.flush-interval:250ms}")
+    private Duration flushInterval;
+    
+    @Value("${app.live-updates.heartbeat-interval:15s}")
+    private Duration heartbeatInterval;
+    
+    @Value("${app.live-updates.timeout:30m}")
+    private Duration timeout;
+    
+    @Value("${app.live-updates.sender-threads:4}")
+    private int senderThreads;
+    
+    @Autowired
+    private EnrollmentStatistics enrollmentStatistics;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final CopyOnWriteArrayList<Client> clients = new CopyOnWriteArrayList<>();
+    private ScheduledExecutorService scheduler;
+    private ExecutorService senders;
+    private Counter resyncs;
+    
+    @PostConstruct
+    public void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(new CustomizableThreadFactory("live-updates-flush-"));
+        senders = Executors.newFixedThreadPool(senderThreads, new CustomizableThreadFactory("live-updates-send-"));
+        scheduler.scheduleWithFixedDelay(this::flush, flushInterval.toMillis(), flushInterval.toMillis(), TimeUnit.MILLISECONDS);
+        Gauge.builder("app.live.updates.clients", clients, CopyOnWriteArrayList::size)
+                .description("Connected live update clients")
+                .register(meterRegistry);
+        resyncs = Counter.builder("app.live.updates.resyncs")
+                .description("Clients told to reload because they fell behind")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        for (Client client : clients) {
+            client.emitter.complete();
+        }
+    }
+    
+    // Empty when the client limit is reached
+    public Optional<SseEmitter> subscribe() {
+        if (clients.size() >= maxClients) {
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        Client client = new Client(emitter);
+        emitter.onCompletion(() -> clients.remove(client));
+        emitter.onTimeout(() -> clients.remove(client));
+        emitter.onError(error -> clients.remove(client));
+        clients.add(client);
+        return Optional.of(emitter);
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRegistrationChanged(RegistrationChangedEvent event) {
+        RegistrationDTO registration = event.getRegistration();
+        for (Client client : clients) {
+            client.registrationChanged(registration);
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubjectChanged(SubjectChangedEvent event) {
+        for (Client client : clients) {
+            client.subjectChanged(event.getSubjectId());
+        }
+    }
+    
+    // Deleting a student removes their registrations in bulk, which is not worth describing as deltas
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        if (event.isDeleted()) {
+            for (Client client : clients) {
+                client.requestResync();
+            }
+        }
+    }
+    
+    private void flush() {
+        long now = System.nanoTime();
+        for (Client client : clients) {
+            if ((client.hasPending() || now - client.lastSent >= heartbeatInterval.toNanos())
+                    && client.sending.compareAndSet(false, true)) {
+                senders.execute(() -> send(client));
+            }
+        }
+    }
+    
+    private void send(Client client) {
+        try {
+            Pending pending = client.takePending();
+            if (pending.resync) {
+                resyncs.increment();
+                client.emitter.send(SseEmitter.event().name(RESYNC_EVENT).data("{}", MediaType.APPLICATION_JSON));
+            } else if (!pending.isEmpty()) {
+                client.emitter.send(SseEmitter.event().name(UPDATE_EVENT).data(toUpdate(pending), MediaType.APPLICATION_JSON));
+            } else {
+                client.emitter.send(SseEmitter.event().comment("heartbeat"));
+            }
+            client.lastSent = System.nanoTime();
+        } catch (IOException | IllegalStateException e) {
+            clients.remove(client);
+            client.emitter.completeWithError(e);
+        } finally {
+            client.sending.set(false);
+        }
+    }
+    
+    private LiveUpdateDTO toUpdate(Pending pending) {
+        LiveUpdateDTO update = new LiveUpdateDTO();
+        for (String subjectId : pending.subjectIds) {
+            Optional<SubjectStatsDTO> stats = enrollmentStatistics.getSubjectStats(subjectId);
+            if (stats.isPresent()) {
+                update.getSubjects().add(stats.get());
+            } else {
+                update.getDeletedSubjectIds().add(subjectId);
+            }
+        }
+        update.getRegistrations().addAll(pending.registrations.values());
+        return update;
+    }
+    
+    private final class Client {
+        
+        private final SseEmitter emitter;
+        private final AtomicBoolean sending = new AtomicBoolean();
+        private volatile long lastSent = System.nanoTime();
+        private Pending pending = new Pending();
+        
+        Client(SseEmitter emitter) {
+            this.emitter = emitter;
+        }
+        
+        synchronized void registrationChanged(RegistrationDTO registration) {
+            if (!pending.resync) {
+                pending.registrations.put(registration.getId(), registration);
+                pending.subjectIds.add(registration.getSubjectId());
+                checkBacklog();
+            }
+        }
+        
+        synchronized void subjectChanged(String subjectId) {
+            if (!pending.resync) {
+                pending.subjectIds.add(subjectId);
+                checkBacklog();
+            }
+        }
+        
+        synchronized void requestResync() {
+            pending = new Pending();
+            pending.resync = true;
+        }
+        
+        synchronized boolean hasPending() {
+            return pending.resync || !pending.isEmpty();
+        }
+        
+        synchronized Pending takePending() {
+            Pending taken = pending;
+            pending = new Pending();
+            return taken;
+        }
+        
+        private void checkBacklog() {
+            if (pending.subjectIds.size() + pending.registrations.size() > maxPending) {
+                requestResync();
+            }
+        }
+    }
+    
+    private static final class Pending {
+        
+        private final Set<String> subjectIds = new LinkedHashSet<>();
+        private final Map<Long, RegistrationDTO> registrations = new LinkedHashMap<>();
+        private boolean resync;
+        
+        boolean isEmpty() {
+            return subjectIds.isEmpty() && registrations.isEmpty();
+        }
+    }
+}
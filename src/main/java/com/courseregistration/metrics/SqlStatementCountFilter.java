@@ -0,0 +1,56 @@
+package com.courseregistration.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+// Records the statements executed per request in the app.sql.statements summary, tagged like
+// http.server.requests so a route whose count grows with the data points at an N+1 pattern
+@Component
+public class SqlStatementCountFilter extends OncePerRequestFilter {
+    
+    public static final String METRIC_NAME = "app.sql.statements";
+    
+    private static final Logger logger = LoggerFactory.getLogger(SqlStatementCountFilter.class);
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        SqlStatementCounter.start();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            int statements = SqlStatementCounter.stop();
+            DistributionSummary.builder(METRIC_NAME)
+                    .description("SQL statements executed per HTTP request")
+                    .baseUnit("statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uriTag(request))
+                    .register(meterRegistry)
+                    .record(statements);
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} {} executed {} SQL statements", request.getMethod(), request.getRequestURI(), statements);
+            }
+        }
+    }
+    
+    // Route template rather than the raw path, so path variables do not explode the tag cardinality
+    private static String uriTag(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : "UNKNOWN";
+    }
+}
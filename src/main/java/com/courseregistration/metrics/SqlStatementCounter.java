@@ -0,0 +1,42 @@
+package com.courseregistration.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counts the SQL statements Hibernate prepares on the current request thread.
+// Counting only happens between start() and stop(), which SqlStatementCountFilter calls around each request.
+public class SqlStatementCounter implements StatementInspector {
+    
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+    private static final LongAdder TOTAL = new LongAdder();
+    
+    @Override
+    public String inspect(String sql) {
+        int[] count = CURRENT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        TOTAL.increment();
+        return sql;
+    }
+    
+    public static void start() {
+        CURRENT.set(new int[1]);
+    }
+    
+    public static int current() {
+        int[] count = CURRENT.get();
+        return count != null ? count[0] : 0;
+    }
+    
+    public static int stop() {
+        int count = current();
+        CURRENT.remove();
+        return count;
+    }
+    
+    public static long total() {
+        return TOTAL.sum();
+    }
+}
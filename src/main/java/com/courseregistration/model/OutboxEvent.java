@@ -0,0 +1,84 @@
+package com.courseregistration.model;
+
+import javax.persistence.*;
+
+import java.time.LocalDateTime;
+
+// A registration change waiting to be relayed to the event log. Rows are inserted in the same
+// transaction as the change itself and deleted by OutboxRelay once they are in the log.
+@Entity
+@Table(name = "outbox_events")
+public class OutboxEvent {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_events_seq", allocationSize = 50)
+    private Long id;
+    
+    @Column(name = "event_type", length = 40, nullable = false)
+    private String eventType;
+    
+    @Column(name = "registration_id", nullable = false)
+    private Long registrationId;
+    
+    // The event body as JSON, copied into the log verbatim
+    @Lob
+    @Column(name = "payload", nullable = false)
+    private String payload;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public OutboxEvent() {
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public OutboxEvent(String eventType, Long registrationId, String payload) {
+        this.eventType = eventType;
+        this.registrationId = registrationId;
+        this.payload = payload;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    // Getters and Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getEventType() {
+        return eventType;
+    }
+    
+    public void setEventType(String eventType) {
+        this.eventType = eventType;
+    }
+    
+    public Long getRegistrationId() {
+        return registrationId;
+    }
+    
+    public void setRegistrationId(Long registrationId) {
+        this.registrationId = registrationId;
+    }
+    
+    public String getPayload() {
+        return payload;
+    }
+    
+    public void setPayload(String payload) {
+        this.payload = payload;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -6,11 +6,21 @@ import javax.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "registrations")
+@Table(name = "registrations",
+       indexes = {
+           @Index(name = "idx_registrations_student_status", columnList = "student_id, status"),
+           @Index(name = "idx_registrations_subject_status", columnList = "subject_id, status"),
+           @Index(name = "idx_registrations_student_subject_status", columnList = "student_id, subject_id, status"),
+           @Index(name = "idx_registrations_waitlist", columnList = "subject_id, status, waitlist_sequence")
+       },
+       uniqueConstraints = @UniqueConstraint(name = "uk_registrations_active",
+                                             columnNames = {"student_id", "subject_id", "active_marker"}))
 public class Registration {
     
+    // Pooled sequence instead of IDENTITY so Hibernate can batch registration inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "registration_seq")
+    @SequenceGenerator(name = "registration_seq", sequenceName = "registrations_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Student ID is required")
@@ -28,6 +38,20 @@ public class Registration {
     @Column(name = "status")
     private RegistrationStatus status = RegistrationStatus.ACTIVE;
     
+    // TRUE while ACTIVE or WAITLISTED, NULL otherwise. Unique constraints ignore NULLs on both H2 and Postgres,
+    // so uk_registrations_active allows any number of past registrations but only one current one.
+    @Column(name = "active_marker")
+    private Boolean activeMarker = Boolean.TRUE;
+    
+    // FIFO order within the subject's waitlist, assigned by WaitlistService and kept after promotion
+    @Column(name = "waitlist_sequence")
+    private Long waitlistSequence;
+    
+    // Optimistic lock; the default lets ddl-auto=update add the column to existing tables
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "student_id", insertable = false, updatable = false)
     private Student student;
@@ -105,6 +129,29 @@ public class Registration {
         this.subject = subject;
     }
     
+    public Long getWaitlistSequence() {
+        return waitlistSequence;
+    }
+    
+    public void setWaitlistSequence(Long waitlistSequence) {
+        this.waitlistSequence = waitlistSequence;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
+    @PrePersist
+    @PreUpdate
+    private void syncActiveMarker() {
+        this.activeMarker = status == RegistrationStatus.ACTIVE || status == RegistrationStatus.WAITLISTED
+                ? Boolean.TRUE : null;
+    }
+    
     @Override
     public String toString() {
         return "Registration{" +
@@ -2,6 +2,7 @@ package com.courseregistration.model;
 
 public enum RegistrationStatus {
     ACTIVE,
+    WAITLISTED,
     CANCELLED,
     COMPLETED
 }
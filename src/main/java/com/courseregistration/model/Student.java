@@ -9,7 +9,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "students")
+@Table(name = "students",
+       indexes = @Index(name = "idx_students_email", columnList = "email"))
 public class Student {
     
     @Id
@@ -46,6 +47,11 @@ public class Student {
     @Size(max = 100, message = "Email must not exceed 100 characters")
     private String email;
     
+    // Optimistic lock; the default lets ddl-auto=update add the column to existing tables
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    
     @OneToMany(mappedBy = "student", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Registration> registrations = new ArrayList<>();
     
@@ -120,6 +126,14 @@ public class Student {
         this.email = email;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public List<Registration> getRegistrations() {
         return registrations;
     }
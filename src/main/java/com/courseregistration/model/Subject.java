@@ -39,9 +39,20 @@ public class Subject {
     
     @NotNull(message = "Current enrollment is required")
     @Min(value = 0, message = "Current enrollment cannot be negative")
-    @Column(name = "current_enrollment")
+    // Maintained by SeatReservationService through conditional updates, never by entity saves
+    @Column(name = "current_enrollment", updatable = false)
     private Integer currentEnrollment = 0;
     
+    // Optimistic lock for catalog edits; seat counter updates are bulk updates and leave it alone.
+    // The column default lets ddl-auto=update add it to existing tables.
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+    
+    // Bumped by every seat counter update instead, so projections of the counter can be ordered
+    @Column(name = "seat_version", nullable = false, insertable = false, updatable = false, columnDefinition = "bigint default 0")
+    private Long seatVersion;
+    
     @OneToMany(mappedBy = "subject", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Registration> registrations = new ArrayList<>();
     
@@ -116,6 +127,14 @@ public class Subject {
         this.currentEnrollment = currentEnrollment;
     }
     
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+    
     public List<Registration> getRegistrations() {
         return registrations;
     }
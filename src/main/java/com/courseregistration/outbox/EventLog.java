@@ -0,0 +1,328 @@
+package com.courseregistration.outbox;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Append-only log of registration events, one JSON record per line, kept in fixed-size memory-mapped
+// segment files named after the offset of their first record. An offset is a record's position in the
+// whole log, so consumers resume from the last offset they saw. Only OutboxRelay appends; readers get
+// read-only slices of the mapped segments, so serving a batch neither copies nor parses the records.
+@Component
+public class EventLog {
+    
+    private static final Logger logger = LoggerFactory.getLogger(EventLog.class);
+    
+    private static final String SUFFIX = ".log";
+    
+    @Value("${app.outbox.log-dir:data/events}")
+    private String logDir;
+    
+    @Value("${app.outbox.segment-size:64MB}")
+    private DataSize segmentSize;
+    
+    // Older segments are deleted once this many exist
+    @Value("${app.outbox.retained-segments:16}")
+    private int retainedSegments;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final CopyOnWriteArrayList<Segment> segments = new CopyOnWriteArrayList<>();
+    private final ConcurrentLinkedQueue<Runnable> appendListeners = new ConcurrentLinkedQueue<>();
+    private volatile long endOffset;
+    
+    @PostConstruct
+    public void open() throws IOException {
+        Path directory = Paths.get(logDir);
+        Files.createDirectories(directory);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            String name = file.getFileName().toString();
+            segments.add(Segment.open(file, Long.parseLong(name.substring(0, name.length() - SUFFIX.length())),
+                    segmentSize.toBytes()));
+        }
+        if (segments.isEmpty()) {
+            segments.add(newSegment(0));
+        }
+        endOffset = last().endOffset();
+        logger.info("Event log at {} holds offsets {} to {}", directory.toAbsolutePath(), getStartOffset(), endOffset);
+        Gauge.builder("app.outbox.log.end-offset", this, EventLog::getEndOffset)
+                .description("Offset the next event log record will get")
+                .register(meterRegistry);
+    }
+    
+    @PreDestroy
+    public void close() {
+        for (Segment segment : segments) {
+            segment.close();
+        }
+    }
+    
+    public long getStartOffset() {
+        return segments.get(0).baseOffset;
+    }
+    
+    public long getEndOffset() {
+        return endOffset;
+    }
+    
+    // Appends one record built for the offset it will get and returns that offset. The record must not
+    // contain a line break; it is only durable and visible to readers after flush().
+    public long append(LongFunction<byte[]> recordForOffset) throws IOException {
+        appendLock.lock();
+        try {
+            Segment segment = last();
+            long offset = segment.endOffset();
+            byte[] record = recordForOffset.apply(offset);
+            for (byte b : record) {
+                if (b == '\n' || b == 0) {
+                    throw new IllegalArgumentException("Event log records must be a single line");
+                }
+            }
+            if (!segment.append(record)) {
+                segment.force();
+                segment = newSegment(offset);
+                segments.add(segment);
+                if (!segment.append(record)) {
+                    throw new IllegalArgumentException("Event of " + record.length + " bytes does not fit in a log segment");
+                }
+                deleteExpiredSegments();
+            }
+            return offset;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+    
+    // Forces appended records to disk, then publishes them to readers and wakes waiting long polls
+    public void flush() {
+        appendLock.lock();
+        try {
+            Segment segment = last();
+            segment.force();
+            endOffset = segment.endOffset();
+        } finally {
+            appendLock.unlock();
+        }
+        Runnable listener;
+        while ((listener = appendListeners.poll()) != null) {
+            listener.run();
+        }
+    }
+    
+    // Runs once, on the relay thread, after the next flush; callers re-check getEndOffset() after registering
+    public void onNextAppend(Runnable listener) {
+        appendListeners.add(listener);
+    }
+    
+    public void removeListener(Runnable listener) {
+        appendListeners.remove(listener);
+    }
+    
+    // Up to maxRecords records from fromOffset on, as one read-only slice per segment
+    public Batch read(long fromOffset, int maxRecords) {
+        long end = Math.min(endOffset, fromOffset + maxRecords);
+        List<ByteBuffer> chunks = new ArrayList<>();
+        long offset = Math.max(fromOffset, getStartOffset());
+        for (Segment segment : segments) {
+            if (offset >= end) {
+                break;
+            }
+            long segmentEnd = Math.min(segment.endOffset(), end);
+            if (offset >= segment.baseOffset && offset < segmentEnd) {
+                chunks.add(segment.slice(offset, segmentEnd));
+                offset = segmentEnd;
+            }
+        }
+        return new Batch(chunks, offset);
+    }
+    
+    // A single record without its line break, or null if the offset is not in the log
+    public ByteBuffer record(long offset) {
+        Batch batch = read(offset, 1);
+        if (batch.getChunks().isEmpty()) {
+            return null;
+        }
+        ByteBuffer chunk = batch.getChunks().get(0);
+        chunk.limit(chunk.limit() - 1);
+        return chunk;
+    }
+    
+    private Segment last() {
+        return segments.get(segments.size() - 1);
+    }
+    
+    private Segment newSegment(long baseOffset) throws IOException {
+        return Segment.open(Paths.get(logDir, String.format("%020d", baseOffset) + SUFFIX), baseOffset, segmentSize.toBytes());
+    }
+    
+    // A reader still holding a slice of a deleted segment keeps the mapping alive until it is done
+    private void deleteExpiredSegments() {
+        while (segments.size() > Math.max(retainedSegments, 1)) {
+            Segment expired = segments.remove(0);
+            expired.close();
+            try {
+                Files.deleteIfExists(expired.file);
+            } catch (IOException e) {
+                logger.warn("Could not delete expired event log segment {}", expired.file, e);
+            }
+        }
+    }
+    
+    public static final class Batch {
+        
+        private final List<ByteBuffer> chunks;
+        private final long nextOffset;
+        
+        Batch(List<ByteBuffer> chunks, long nextOffset) {
+            this.chunks = Collections.unmodifiableList(chunks);
+            this.nextOffset = nextOffset;
+        }
+        
+        public List<ByteBuffer> getChunks() {
+            return chunks;
+        }
+        
+        public long getNextOffset() {
+            return nextOffset;
+        }
+        
+        public boolean isEmpty() {
+            return chunks.isEmpty();
+        }
+    }
+    
+    private static final class Segment {
+        
+        private final Path file;
+        private final long baseOffset;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+        // positions[i] is where record i starts and positions[count] where the next one goes. The array is
+        // only replaced after being filled in, and count is written last, so readers need no lock.
+        private volatile int[] positions = new int[1024];
+        private volatile int count;
+        
+        private Segment(Path file, long baseOffset, FileChannel channel, MappedByteBuffer buffer) {
+            this.file = file;
+            this.baseOffset = baseOffset;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+        
+        // A larger existing file keeps its size; a record cut short by a crash is zeroed out
+        static Segment open(Path file, long baseOffset, long size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            long capacity = Math.max(channel.size(), size);
+            if (capacity > Integer.MAX_VALUE) {
+                channel.close();
+                throw new IllegalArgumentException("Event log segments must be smaller than 2GB");
+            }
+            Segment segment = new Segment(file, baseOffset, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity));
+            segment.recover();
+            return segment;
+        }
+        
+        long endOffset() {
+            return baseOffset + count;
+        }
+        
+        boolean append(byte[] record) {
+            int start = positions[count];
+            if ((long) start + record.length + 1 > buffer.capacity()) {
+                return false;
+            }
+            ByteBuffer target = buffer.duplicate();
+            target.position(start);
+            target.put(record);
+            target.put((byte) '\n');
+            addPosition(target.position());
+            return true;
+        }
+        
+        ByteBuffer slice(long fromOffset, long toOffset) {
+            int[] current = positions;
+            ByteBuffer slice = buffer.asReadOnlyBuffer();
+            slice.limit(current[(int) (toOffset - baseOffset)]);
+            slice.position(current[(int) (fromOffset - baseOffset)]);
+            return slice.slice();
+        }
+        
+        void force() {
+            buffer.force();
+        }
+        
+        void close() {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                logger.warn("Could not close event log segment {}", file, e);
+            }
+        }
+        
+        private void recover() {
+            int position = 0;
+            int capacity = buffer.capacity();
+            while (position < capacity && buffer.get(position) != 0) {
+                int lineEnd = position;
+                while (lineEnd < capacity && buffer.get(lineEnd) != '\n' && buffer.get(lineEnd) != 0) {
+                    lineEnd++;
+                }
+                if (lineEnd == capacity || buffer.get(lineEnd) != '\n') {
+                    logger.warn("Discarding a partial record at byte {} of {}", position, file);
+                    for (int i = position; i < lineEnd; i++) {
+                        buffer.put(i, (byte) 0);
+                    }
+                    break;
+                }
+                position = lineEnd + 1;
+                addPosition(position);
+            }
+        }
+        
+        private void addPosition(int next) {
+            int[] current = positions;
+            if (count + 1 == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+                current[count + 1] = next;
+                positions = current;
+            } else {
+                current[count + 1] = next;
+            }
+            count++;
+        }
+    }
+}
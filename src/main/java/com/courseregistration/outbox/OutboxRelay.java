@@ -0,0 +1,156 @@
+package com.courseregistration.outbox;
+
+import com.courseregistration.event.RegistrationChangedEvent;
+import com.courseregistration.model.OutboxEvent;
+import com.courseregistration.repository.OutboxEventRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Moves outbox rows into the EventLog on a single background thread, oldest first. Each batch is
+// appended and forced to disk before its rows are deleted. If the process dies in between, the rows
+// are read again on restart; their outbox ids are still in the tail of the log, so they are skipped
+// rather than appended twice. Ids are paired with the creation time, since an in-memory database
+// starts its ids over on restart while the log keeps its records. Commits wake the relay straight away, and it also polls as a backstop.
+@Component
+public class OutboxRelay {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    
+    @Value("${app.outbox.batch-size:500}")
+    private int batchSize;
+    
+    @Value("${app.outbox.poll-interval:1s}")
+    private Duration pollInterval;
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private EventLog eventLog;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private final Semaphore wakeups = new Semaphore(0);
+    // Rows appended to the log that may not have been deleted yet, as outboxId@occurredAt
+    private final Set<String> relayedKeys = new HashSet<>();
+    private TransactionTemplate transactionTemplate;
+    private Thread thread;
+    private volatile boolean running;
+    
+    @PostConstruct
+    public void start() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        long end = eventLog.getEndOffset();
+        for (long offset = Math.max(eventLog.getStartOffset(), end - batchSize); offset < end; offset++) {
+            relayedKeys.add(relayedKey(eventLog.record(offset)));
+        }
+        running = true;
+        thread = new Thread(this::relay, "outbox-relay");
+        thread.setDaemon(true);
+        thread.start();
+    }
+    
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        thread.interrupt();
+        thread.join(TimeUnit.SECONDS.toMillis(10));
+    }
+    
+    @TransactionalEventListener
+    public void onRegistrationChanged(RegistrationChangedEvent event) {
+        wakeups.release();
+    }
+    
+    private void relay() {
+        while (running) {
+            try {
+                wakeups.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeups.drainPermits();
+                while (running && relayBatch() == batchSize) {
+                    // A full batch means more rows may be waiting
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException | IOException e) {
+                // Nothing was deleted, so the next round picks the same rows up again
+                logger.error("Outbox relay failed", e);
+            }
+        }
+    }
+    
+    private int relayBatch() throws IOException {
+        List<OutboxEvent> events = outboxEventRepository.findOldest(PageRequest.of(0, batchSize));
+        if (events.isEmpty()) {
+            return 0;
+        }
+        List<Long> ids = new ArrayList<>(events.size());
+        List<String> keys = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            String key = event.getId() + "@" + event.getCreatedAt();
+            ids.add(event.getId());
+            keys.add(key);
+            if (!relayedKeys.contains(key)) {
+                eventLog.append(offset -> record(offset, event));
+                relayedKeys.add(key);
+            }
+        }
+        eventLog.flush();
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.deleteByIds(ids));
+        relayedKeys.removeAll(keys);
+        return events.size();
+    }
+    
+    private byte[] record(long offset, OutboxEvent event) {
+        try {
+            ObjectNode record = objectMapper.createObjectNode();
+            record.put("offset", offset);
+            record.put("outboxId", event.getId());
+            record.put("type", event.getEventType());
+            record.put("registrationId", event.getRegistrationId());
+            record.put("occurredAt", event.getCreatedAt().toString());
+            record.set("payload", objectMapper.readTree(event.getPayload()));
+            return objectMapper.writeValueAsBytes(record);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private String relayedKey(ByteBuffer record) {
+        try {
+            JsonNode node = objectMapper.readTree(StandardCharsets.UTF_8.decode(record).toString());
+            return node.path("outboxId").asLong() + "@" + node.path("occurredAt").asText();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
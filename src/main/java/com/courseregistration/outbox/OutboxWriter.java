@@ -0,0 +1,39 @@
+package com.courseregistration.outbox;
+
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.event.RegistrationChangedEvent;
+import com.courseregistration.model.OutboxEvent;
+import com.courseregistration.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+// Records every registration change in the outbox table before the transaction that made it commits,
+// so the change and its event are stored or rolled back together. Changes made outside a transaction
+// are not recorded; RegistrationService only changes registrations inside one.
+@Component
+public class OutboxWriter {
+    
+    public static final String REGISTRATION_CREATED = "REGISTRATION_CREATED";
+    public static final String REGISTRATION_STATUS_CHANGED = "REGISTRATION_STATUS_CHANGED";
+    
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @TransactionalEventListener(phase = TransactionPhase.BEFORE_COMMIT)
+    public void onRegistrationChanged(RegistrationChangedEvent event) throws JsonProcessingException {
+        RegistrationDTO registration = event.getRegistration();
+        ObjectNode payload = objectMapper.createObjectNode();
+        payload.set("registration", objectMapper.valueToTree(registration));
+        payload.put("previousStatus", event.isNew() ? null : event.getPreviousStatus().name());
+        outboxEventRepository.save(new OutboxEvent(event.isNew() ? REGISTRATION_CREATED : REGISTRATION_STATUS_CHANGED,
+                registration.getId(), objectMapper.writeValueAsString(payload)));
+    }
+}
@@ -0,0 +1,143 @@
+package com.courseregistration.reactive;
+
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.model.RegistrationStatus;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDateTime;
+
+// Non-blocking counterparts of the catalog and roster read queries, over R2DBC. Rows are mapped
+// straight into the same DTOs the servlet API returns and are pulled from the database only as fast
+// as the subscriber asks for them. The pool is private to this class and not a bean, since Boot
+// would drop the JDBC DataSource the moment it saw an R2DBC ConnectionFactory in the context.
+@Component
+public class ReactiveReadRepository {
+    
+    private static final String SELECT_SUBJECT = "SELECT subject_id, subject_name, credits, instructor_name, " +
+            "prerequisite_subject_id, max_capacity, current_enrollment, version FROM subjects ";
+    
+    private static final String SELECT_REGISTRATION = "SELECT r.id, r.student_id, r.subject_id, r.registration_date, r.status, r.version, " +
+            "st.title, st.first_name, st.last_name, sb.subject_name FROM registrations r " +
+            "LEFT JOIN students st ON st.student_id = r.student_id " +
+            "LEFT JOIN subjects sb ON sb.subject_id = r.subject_id ";
+    
+    @Value("${app.reactive.r2dbc.url:r2dbc:h2:mem:///testdb?options=DB_CLOSE_DELAY=-1}")
+    private String url;
+    
+    @Value("${app.reactive.r2dbc.username:sa}")
+    private String username;
+    
+    @Value("${app.reactive.r2dbc.password:}")
+    private String password;
+    
+    @Value("${app.reactive.r2dbc.max-connections:10}")
+    private int maxConnections;
+    
+    private ConnectionPool connectionPool;
+    private DatabaseClient databaseClient;
+    
+    @PostConstruct
+    public void init() {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxConnections)
+                .build());
+        databaseClient = DatabaseClient.create(connectionPool);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        connectionPool.dispose();
+    }
+    
+    public Flux<SubjectDTO> findAllSubjects() {
+        return databaseClient.sql(SELECT_SUBJECT + "ORDER BY subject_id")
+                .map((row, metadata) -> toSubject(row))
+                .all();
+    }
+    
+    public Flux<SubjectDTO> findAvailableSubjects() {
+        return databaseClient.sql(SELECT_SUBJECT + "WHERE max_capacity = -1 OR current_enrollment < max_capacity ORDER BY subject_id")
+                .map((row, metadata) -> toSubject(row))
+                .all();
+    }
+    
+    public Mono<SubjectDTO> findSubjectById(String subjectId) {
+        return databaseClient.sql(SELECT_SUBJECT + "WHERE subject_id = :subjectId")
+                .bind("subjectId", subjectId)
+                .map((row, metadata) -> toSubject(row))
+                .one();
+    }
+    
+    public Flux<RegistrationDTO> findAllRegistrations() {
+        return databaseClient.sql(SELECT_REGISTRATION + "ORDER BY r.id")
+                .map((row, metadata) -> toRegistration(row))
+                .all();
+    }
+    
+    public Flux<RegistrationDTO> findRegistrationsByStudentId(String studentId, boolean activeOnly) {
+        return databaseClient.sql(SELECT_REGISTRATION + "WHERE r.student_id = :studentId" + activeFilter(activeOnly) + " ORDER BY r.id")
+                .bind("studentId", studentId)
+                .map((row, metadata) -> toRegistration(row))
+                .all();
+    }
+    
+    public Flux<RegistrationDTO> findRegistrationsBySubjectId(String subjectId, boolean activeOnly) {
+        return databaseClient.sql(SELECT_REGISTRATION + "WHERE r.subject_id = :subjectId" + activeFilter(activeOnly) + " ORDER BY r.id")
+                .bind("subjectId", subjectId)
+                .map((row, metadata) -> toRegistration(row))
+                .all();
+    }
+    
+    // Helper methods
+    private static String activeFilter(boolean activeOnly) {
+        return activeOnly ? " AND r.status = 'ACTIVE'" : "";
+    }
+    
+    private static SubjectDTO toSubject(Row row) {
+        return new SubjectDTO(
+                row.get("subject_id", String.class),
+                row.get("subject_name", String.class),
+                row.get("credits", Integer.class),
+                row.get("instructor_name", String.class),
+                row.get("prerequisite_subject_id", String.class),
+                row.get("max_capacity", Integer.class),
+                row.get("current_enrollment", Integer.class),
+                row.get("version", Long.class)
+        );
+    }
+    
+    // Same name format as Student.getFullName()
+    private static RegistrationDTO toRegistration(Row row) {
+        String firstName = row.get("first_name", String.class);
+        String studentName = firstName != null
+                ? row.get("title", String.class) + " " + firstName + " " + row.get("last_name", String.class)
+                : null;
+        String status = row.get("status", String.class);
+        return new RegistrationDTO(
+                row.get("id", Long.class),
+                row.get("student_id", String.class),
+                row.get("subject_id", String.class),
+                row.get("registration_date", LocalDateTime.class),
+                status != null ? RegistrationStatus.valueOf(status) : null,
+                studentName,
+                row.get("subject_name", String.class),
+                row.get("version", Long.class)
+        );
+    }
+}
@@ -0,0 +1,70 @@
+package com.courseregistration.reactive;
+
+import com.courseregistration.dto.ApiResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.GET;
+import static org.springframework.web.reactive.function.server.RouterFunctions.route;
+
+// Functional routes for the reactive read API. Paths and ApiResponse bodies match the servlet
+// controllers; a client sending Accept: application/x-ndjson on a list route gets the rows streamed
+// one per line instead, with backpressure all the way down to the database cursor.
+@Component
+public class ReactiveReadRoutes {
+    
+    @Autowired
+    private ReactiveReadRepository readRepository;
+    
+    public RouterFunction<ServerResponse> routes() {
+        return route(GET("/api/subjects"), request -> list(request, readRepository.findAllSubjects(),
+                        "Subjects retrieved successfully", "Error retrieving subjects: "))
+                .andRoute(GET("/api/subjects/available"), request -> list(request, readRepository.findAvailableSubjects(),
+                        "Available subjects retrieved successfully", "Error retrieving available subjects: "))
+                .andRoute(GET("/api/subjects/{subjectId}"), this::getSubject)
+                .andRoute(GET("/api/registrations"), request -> list(request, readRepository.findAllRegistrations(),
+                        "Registrations retrieved successfully", "Error retrieving registrations: "))
+                .andRoute(GET("/api/registrations/student/{studentId}"), request -> list(request,
+                        readRepository.findRegistrationsByStudentId(request.pathVariable("studentId"), false),
+                        "Student registrations retrieved successfully", "Error retrieving student registrations: "))
+                .andRoute(GET("/api/registrations/student/{studentId}/active"), request -> list(request,
+                        readRepository.findRegistrationsByStudentId(request.pathVariable("studentId"), true),
+                        "Active student registrations retrieved successfully", "Error retrieving active student registrations: "))
+                .andRoute(GET("/api/registrations/subject/{subjectId}"), request -> list(request,
+                        readRepository.findRegistrationsBySubjectId(request.pathVariable("subjectId"), false),
+                        "Subject registrations retrieved successfully", "Error retrieving subject registrations: "))
+                .andRoute(GET("/api/registrations/subject/{subjectId}/active"), request -> list(request,
+                        readRepository.findRegistrationsBySubjectId(request.pathVariable("subjectId"), true),
+                        "Active subject registrations retrieved successfully", "Error retrieving active subject registrations: "));
+    }
+    
+    private Mono<ServerResponse> getSubject(ServerRequest request) {
+        String subjectId = request.pathVariable("subjectId");
+        return readRepository.findSubjectById(subjectId)
+                .flatMap(subject -> ServerResponse.ok().bodyValue(ApiResponse.success("Subject retrieved successfully", subject)))
+                .switchIfEmpty(Mono.defer(() -> ServerResponse.status(HttpStatus.NOT_FOUND)
+                        .bodyValue(ApiResponse.error("Subject not found with ID: " + subjectId))))
+                .onErrorResume(e -> error("Error retrieving subject: ", e));
+    }
+    
+    private <T> Mono<ServerResponse> list(ServerRequest request, Flux<T> rows, String message, String errorPrefix) {
+        if (request.headers().accept().contains(MediaType.APPLICATION_NDJSON)) {
+            // Headers are already committed once streaming starts, so a failure just ends the stream
+            return ServerResponse.ok().contentType(MediaType.APPLICATION_NDJSON).body(rows, Object.class);
+        }
+        return rows.collectList()
+                .flatMap(items -> ServerResponse.ok().bodyValue(ApiResponse.success(message, items)))
+                .onErrorResume(e -> error(errorPrefix, e));
+    }
+    
+    private static Mono<ServerResponse> error(String prefix, Throwable e) {
+        return ServerResponse.status(HttpStatus.INTERNAL_SERVER_ERROR).bodyValue(ApiResponse.error(prefix + e.getMessage()));
+    }
+}
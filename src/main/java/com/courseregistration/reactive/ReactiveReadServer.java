@@ -0,0 +1,74 @@
+package com.courseregistration.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.http.codec.json.Jackson2JsonDecoder;
+import org.springframework.http.codec.json.Jackson2JsonEncoder;
+import org.springframework.http.server.reactive.HttpHandler;
+import org.springframework.http.server.reactive.ReactorHttpHandlerAdapter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import reactor.netty.DisposableServer;
+import reactor.netty.http.server.HttpServer;
+
+// Serves ReactiveReadRoutes from a Reactor Netty server on its own port, next to the servlet
+// container that keeps handling writes. A few event-loop threads hold any number of open read
+// connections, since nothing on this path blocks waiting for the database.
+@Component
+public class ReactiveReadServer implements SmartLifecycle {
+    
+    private static final Logger log = LoggerFactory.getLogger(ReactiveReadServer.class);
+    
+    @Value("${app.reactive.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${app.reactive.port:8081}")
+    private int port;
+    
+    @Autowired
+    private ReactiveReadRoutes routes;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    private volatile DisposableServer server;
+    
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        // The application's ObjectMapper, so dates and DTOs serialize exactly as on the servlet side
+        HandlerStrategies strategies = HandlerStrategies.builder()
+                .codecs(codecs -> {
+                    codecs.defaultCodecs().jackson2JsonEncoder(new Jackson2JsonEncoder(objectMapper));
+                    codecs.defaultCodecs().jackson2JsonDecoder(new Jackson2JsonDecoder(objectMapper));
+                })
+                .build();
+        HttpHandler handler = RouterFunctions.toHttpHandler(routes.routes(), strategies);
+        server = HttpServer.create()
+                .port(port)
+                .handle(new ReactorHttpHandlerAdapter(handler))
+                .bindNow();
+        log.info("Reactive read API started on port {}", server.port());
+    }
+    
+    @Override
+    public void stop() {
+        DisposableServer current = server;
+        if (current != null) {
+            current.disposeNow();
+            server = null;
+        }
+    }
+    
+    @Override
+    public boolean isRunning() {
+        return server != null;
+    }
+}
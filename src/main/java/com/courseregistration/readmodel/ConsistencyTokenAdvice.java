@@ -0,0 +1,34 @@
+package com.courseregistration.readmodel;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+// Adds X-Consistency-Token to the response of any request whose writes the read model has applied,
+// so the client can send it back on its next read to see its own changes
+@ControllerAdvice
+public class ConsistencyTokenAdvice implements ResponseBodyAdvice<Object> {
+    
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+    
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        if (request instanceof ServletServerHttpRequest) {
+            Object token = ((ServletServerHttpRequest) request).getServletRequest().getAttribute(ReadModel.TOKEN_ATTRIBUTE);
+            if (token != null) {
+                response.getHeaders().set(ReadModel.CONSISTENCY_TOKEN_HEADER, token.toString());
+            }
+        }
+        return body;
+    }
+}
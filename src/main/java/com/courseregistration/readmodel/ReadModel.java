@@ -0,0 +1,474 @@
+package com.courseregistration.readmodel;
+
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.StudentDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.event.RegistrationChangedEvent;
+import com.courseregistration.event.SeatsChangedEvent;
+import com.courseregistration.event.StudentChangedEvent;
+import com.courseregistration.event.SubjectChangedEvent;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.repository.RegistrationRepository;
+import com.courseregistration.repository.StudentRepository;
+import com.courseregistration.repository.SubjectRepository;
+import com.courseregistration.service.PrerequisiteGraph;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Query side of the API. Students, subjects and registrations are held in sorted in-memory maps,
+// with per-student registration sets and per-subject rosters, rebuilt from the database at startup
+// and then kept current by the change events the services publish. The GET endpoints are served
+// from here without a connection or a transaction; the JPA services remain the write side.
+//
+// Events are applied one at a time after commit, ahead of the cache evictions and ETag bumps for the
+// same commit, and an event older than the row already held (by @Version) is skipped. Every applied
+// event advances the position; a write response carries "<epoch>-<position>" as X-Consistency-Token,
+// and a read sending that token back is served here only once the model has reached it, and from the
+// database otherwise. A token from an earlier process always goes to the database.
+@Component
+public class ReadModel {
+    
+    public static final String CONSISTENCY_TOKEN_HEADER = "X-Consistency-Token";
+    static final String TOKEN_ATTRIBUTE = ReadModel.class.getName() + ".token";
+    
+    private static final String FACULTY_PREFIX = "0550";
+    private static final String GENERAL_EDUCATION_PREFIX = "9069";
+    
+    private final long epoch = System.currentTimeMillis();
+    private final AtomicLong position = new AtomicLong();
+    private final ReentrantLock applyLock = new ReentrantLock();
+    private volatile boolean ready;
+    
+    private final ConcurrentSkipListMap<String, StudentDTO> students = new ConcurrentSkipListMap<>();
+    private final Map<String, String> studentIdsByEmail = new ConcurrentHashMap<>();
+    private final ConcurrentSkipListMap<String, SubjectDTO> subjects = new ConcurrentSkipListMap<>();
+    private final ConcurrentSkipListMap<Long, Entry> registrations = new ConcurrentSkipListMap<>();
+    private final Map<String, NavigableSet<Long>> registrationsByStudent = new ConcurrentHashMap<>();
+    private final Map<String, NavigableSet<Long>> rosters = new ConcurrentHashMap<>();
+    // The subjects' seat counters as the database holds them, taken from SeatsChangedEvents.
+    // Projected rather than counted from the rosters, so both read paths report the same enrollment.
+    private final Map<String, SeatsChangedEvent> seatCounters = new ConcurrentHashMap<>();
+    
+    @Value("${app.read-model.enabled:true}")
+    private boolean enabled;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private SubjectRepository subjectRepository;
+    
+    @Autowired
+    private RegistrationRepository registrationRepository;
+    
+    @Autowired
+    private PrerequisiteGraph prerequisiteGraph;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        applyLock.lock();
+        try {
+            ready = false;
+            students.clear();
+            studentIdsByEmail.clear();
+            subjects.clear();
+            registrations.clear();
+            registrationsByStudent.clear();
+            rosters.clear();
+            seatCounters.clear();
+            studentRepository.findAllDTOs().forEach(this::putStudent);
+            subjectRepository.findAllDTOs().forEach(subject -> subjects.put(subject.getSubjectId(), subject));
+            subjectRepository.findAllSeatCounters().forEach(counter -> seatCounters.put(counter.getSubjectId(), counter));
+            registrationRepository.findAllDTOs().forEach(registration -> putRegistration(new Entry(registration)));
+            ready = true;
+        } finally {
+            applyLock.unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onStudentChanged(StudentChangedEvent event) {
+        apply(() -> {
+            if (event.isDeleted()) {
+                StudentDTO removed = students.remove(event.getStudentId());
+                if (removed != null && removed.getEmail() != null) {
+                    studentIdsByEmail.remove(removed.getEmail(), removed.getStudentId());
+                }
+                // The student's registrations are deleted with them
+                NavigableSet<Long> ids = registrationsByStudent.remove(event.getStudentId());
+                if (ids != null) {
+                    ids.forEach(this::removeRegistration);
+                }
+                return;
+            }
+            StudentDTO current = students.get(event.getStudentId());
+            if (current == null || !isOlder(event.getStudent().getVersion(), current.getVersion())) {
+                putStudent(event.getStudent());
+            }
+        });
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onSubjectChanged(SubjectChangedEvent event) {
+        apply(() -> {
+            if (event.isDeleted()) {
+                subjects.remove(event.getSubjectId());
+                NavigableSet<Long> ids = rosters.remove(event.getSubjectId());
+                if (ids != null) {
+                    ids.forEach(this::removeRegistration);
+                }
+                seatCounters.remove(event.getSubjectId());
+                return;
+            }
+            SubjectDTO current = subjects.get(event.getSubjectId());
+            if (current == null || !isOlder(event.getSubject().getVersion(), current.getVersion())) {
+                subjects.put(event.getSubjectId(), event.getSubject());
+            }
+        });
+    }
+    
+    // Seat updates to one subject commit in row-lock order but may be applied out of it; the seat
+    // version keeps an older count from overwriting a newer one
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onSeatsChanged(SeatsChangedEvent event) {
+        apply(() -> {
+            SeatsChangedEvent current = seatCounters.get(event.getSubjectId());
+            if (current == null || !isOlder(event.getSeatVersion(), current.getSeatVersion())) {
+                seatCounters.put(event.getSubjectId(), event);
+            }
+        });
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public void onRegistrationChanged(RegistrationChangedEvent event) {
+        apply(() -> {
+            Entry incoming = new Entry(event.getRegistration());
+            Entry current = registrations.get(incoming.id);
+            if (current == null || !isOlder(incoming.version, current.version)) {
+                putRegistration(incoming);
+            }
+        });
+    }
+    
+    // When enabled the model is the primary read path: reads it cannot answer yet go straight to the
+    // database, and the catalog caches are only used with the model switched off
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // True when this request may be answered from the model: it is enabled and loaded, and it has
+    // applied the write behind the request's consistency token, if one was sent
+    public boolean isServing() {
+        if (!enabled || !ready) {
+            return false;
+        }
+        String token = requestedToken();
+        return token == null || reached(token);
+    }
+    
+    // Students
+    public List<StudentDTO> getAllStudents() {
+        return new ArrayList<>(students.values());
+    }
+    
+    public List<StudentDTO> getStudentsAfter(String after, int limit) {
+        return students.tailMap(after, false).values().stream()
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+    
+    public Optional<StudentDTO> getStudent(String studentId) {
+        return Optional.ofNullable(students.get(studentId));
+    }
+    
+    public Optional<StudentDTO> getStudentByEmail(String email) {
+        String studentId = studentIdsByEmail.get(email);
+        return studentId != null ? getStudent(studentId) : Optional.empty();
+    }
+    
+    public List<StudentDTO> getStudentsBySchool(String school) {
+        return students.values().stream()
+                .filter(student -> Objects.equals(student.getCurrentSchool(), school))
+                .collect(Collectors.toList());
+    }
+    
+    public List<StudentDTO> getStudents(Collection<String> studentIds) {
+        return studentIds.stream()
+                .map(students::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
+    // Subjects, with currentEnrollment taken from the projected seat counters
+    public List<SubjectDTO> getAllSubjects() {
+        return findSubjects(subjects.values().stream(), subject -> true);
+    }
+    
+    public List<SubjectDTO> getSubjectsAfter(String after, int limit) {
+        return subjects.tailMap(after, false).values().stream()
+                .limit(limit)
+                .map(this::withEnrollment)
+                .collect(Collectors.toList());
+    }
+    
+    public Optional<SubjectDTO> getSubject(String subjectId) {
+        return Optional.ofNullable(subjects.get(subjectId)).map(this::withEnrollment);
+    }
+    
+    public List<SubjectDTO> getAvailableSubjects() {
+        return findSubjects(subjects.values().stream(), ReadModel::hasOpenSeat);
+    }
+    
+    public List<SubjectDTO> getSubjectsWithoutPrerequisites() {
+        return findSubjects(subjects.values().stream(), subject -> subject.getPrerequisiteSubjectId() == null);
+    }
+    
+    public List<SubjectDTO> getFacultyCourses() {
+        return findSubjects(subjectsWithPrefix(FACULTY_PREFIX), subject -> true);
+    }
+    
+    public List<SubjectDTO> getGeneralEducationCourses() {
+        return findSubjects(subjectsWithPrefix(GENERAL_EDUCATION_PREFIX), subject -> true);
+    }
+    
+    public List<SubjectDTO> getSubjectsByInstructor(String instructorName) {
+        return findSubjects(subjects.values().stream(), subject -> Objects.equals(subject.getInstructorName(), instructorName));
+    }
+    
+    public List<SubjectDTO> getSubjectsByCredits(Integer credits) {
+        return findSubjects(subjects.values().stream(), subject -> Objects.equals(subject.getCredits(), credits));
+    }
+    
+    public List<SubjectDTO> getSubjects(Collection<String> subjectIds) {
+        return findSubjects(subjectIds.stream().map(subjects::get).filter(Objects::nonNull), subject -> true);
+    }
+    
+    // Open subjects the student is not registered or waitlisted for and has the prerequisites of
+    public List<SubjectDTO> getAvailableSubjectsForStudent(String studentId) {
+        Set<String> taken = new HashSet<>();
+        List<String> completed = new ArrayList<>();
+        for (Entry entry : entries(registrationsByStudent.get(studentId))) {
+            if (entry.status == RegistrationStatus.ACTIVE || entry.status == RegistrationStatus.WAITLISTED) {
+                taken.add(entry.subjectId);
+            } else if (entry.status == RegistrationStatus.COMPLETED) {
+                completed.add(entry.subjectId);
+            }
+        }
+        PrerequisiteGraph.Snapshot graph = prerequisiteGraph.snapshot();
+        BitSet completedSet = graph.completedSet(completed);
+        return findSubjects(subjects.values().stream(), subject -> !taken.contains(subject.getSubjectId())
+                && hasOpenSeat(subject) && graph.isEligible(subject.getSubjectId(), completedSet));
+    }
+    
+    // Registrations, with the current student and subject names
+    public List<RegistrationDTO> getAllRegistrations() {
+        return registrations.values().stream()
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    public List<RegistrationDTO> getRegistrationsAfter(Long after, int limit) {
+        return registrations.tailMap(after, false).values().stream()
+                .limit(limit)
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    public void forEachRegistration(Consumer<RegistrationDTO> consumer) {
+        registrations.values().forEach(entry -> consumer.accept(toDTO(entry)));
+    }
+    
+    public List<RegistrationDTO> getRegistrationsByStudent(String studentId, boolean activeOnly) {
+        return findRegistrations(registrationsByStudent.get(studentId), activeOnly);
+    }
+    
+    public List<RegistrationDTO> getRegistrationsBySubject(String subjectId, boolean activeOnly) {
+        return findRegistrations(rosters.get(subjectId), activeOnly);
+    }
+    
+    // Helper methods
+    private void apply(Runnable change) {
+        if (!enabled) {
+            return;
+        }
+        applyLock.lock();
+        long applied;
+        try {
+            change.run();
+            applied = position.incrementAndGet();
+        } finally {
+            applyLock.unlock();
+        }
+        // Picked up by ConsistencyTokenAdvice for the response to the write that caused the event
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(TOKEN_ATTRIBUTE, epoch + "-" + applied, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+    
+    private void putStudent(StudentDTO student) {
+        StudentDTO previous = students.put(student.getStudentId(), student);
+        if (previous != null && previous.getEmail() != null) {
+            studentIdsByEmail.remove(previous.getEmail(), previous.getStudentId());
+        }
+        if (student.getEmail() != null) {
+            studentIdsByEmail.put(student.getEmail(), student.getStudentId());
+        }
+    }
+    
+    private void putRegistration(Entry entry) {
+        registrations.put(entry.id, entry);
+        registrationsByStudent.computeIfAbsent(entry.studentId, key -> new ConcurrentSkipListSet<>()).add(entry.id);
+        rosters.computeIfAbsent(entry.subjectId, key -> new ConcurrentSkipListSet<>()).add(entry.id);
+    }
+    
+    private void removeRegistration(Long id) {
+        Entry removed = registrations.remove(id);
+        if (removed == null) {
+            return;
+        }
+        NavigableSet<Long> byStudent = registrationsByStudent.get(removed.studentId);
+        if (byStudent != null) {
+            byStudent.remove(id);
+        }
+        NavigableSet<Long> roster = rosters.get(removed.subjectId);
+        if (roster != null) {
+            roster.remove(id);
+        }
+    }
+    
+    private static boolean isOlder(Long incoming, Long current) {
+        return incoming != null && current != null && incoming < current;
+    }
+    
+    private static String requestedToken() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes instanceof ServletRequestAttributes) {
+            return ((ServletRequestAttributes) attributes).getRequest().getHeader(CONSISTENCY_TOKEN_HEADER);
+        }
+        return null;
+    }
+    
+    private boolean reached(String token) {
+        int separator = token.indexOf('-');
+        try {
+            return separator > 0
+                    && Long.parseLong(token.substring(0, separator).trim()) == epoch
+                    && Long.parseLong(token.substring(separator + 1).trim()) <= position.get();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+    
+    private Stream<SubjectDTO> subjectsWithPrefix(String prefix) {
+        return subjects.subMap(prefix, prefix + Character.MAX_VALUE).values().stream();
+    }
+    
+    private List<SubjectDTO> findSubjects(Stream<SubjectDTO> candidates, Predicate<SubjectDTO> filter) {
+        return candidates
+                .map(this::withEnrollment)
+                .filter(filter)
+                .collect(Collectors.toList());
+    }
+    
+    private SubjectDTO withEnrollment(SubjectDTO subject) {
+        return new SubjectDTO(subject.getSubjectId(), subject.getSubjectName(), subject.getCredits(),
+                subject.getInstructorName(), subject.getPrerequisiteSubjectId(), subject.getMaxCapacity(),
+                enrollment(subject.getSubjectId()), subject.getVersion());
+    }
+    
+    private int enrollment(String subjectId) {
+        SeatsChangedEvent counter = seatCounters.get(subjectId);
+        return counter != null ? counter.getCurrentEnrollment() : 0;
+    }
+    
+    private static boolean hasOpenSeat(SubjectDTO subject) {
+        return subject.getMaxCapacity() == -1 || subject.getCurrentEnrollment() < subject.getMaxCapacity();
+    }
+    
+    private List<Entry> entries(NavigableSet<Long> ids) {
+        List<Entry> entries = new ArrayList<>();
+        if (ids != null) {
+            for (Long id : ids) {
+                Entry entry = registrations.get(id);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+    
+    private List<RegistrationDTO> findRegistrations(NavigableSet<Long> ids, boolean activeOnly) {
+        return entries(ids).stream()
+                .filter(entry -> !activeOnly || entry.status == RegistrationStatus.ACTIVE)
+                .map(this::toDTO)
+                .collect(Collectors.toList());
+    }
+    
+    // Names are looked up when the row is read, so renaming a student or subject needs no fan-out
+    private RegistrationDTO toDTO(Entry entry) {
+        StudentDTO student = students.get(entry.studentId);
+        SubjectDTO subject = subjects.get(entry.subjectId);
+        return new RegistrationDTO(entry.id, entry.studentId, entry.subjectId, entry.registrationDate, entry.status,
+                student != null ? student.getFullName() : null,
+                subject != null ? subject.getSubjectName() : null,
+                entry.version);
+    }
+    
+    private static final class Entry {
+        
+        private final Long id;
+        private final String studentId;
+        private final String subjectId;
+        private final LocalDateTime registrationDate;
+        private final RegistrationStatus status;
+        private final Long version;
+        
+        Entry(RegistrationDTO registration) {
+            this.id = registration.getId();
+            this.studentId = registration.getStudentId();
+            this.subjectId = registration.getSubjectId();
+            this.registrationDate = registration.getRegistrationDate();
+            this.status = registration.getStatus();
+            this.version = registration.getVersion();
+        }
+    }
+}
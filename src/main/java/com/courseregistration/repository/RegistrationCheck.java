@@ -0,0 +1,39 @@
+package com.courseregistration.repository;
+
+import java.time.LocalDate;
+
+// Everything registerStudent needs to know apart from prerequisites, loaded by
+// RegistrationRepository.checkRegistration in one query. Subject fields are null when the subject does not exist.
+public class RegistrationCheck {
+    
+    private final LocalDate dateOfBirth;
+    private final String subjectId;
+    private final Integer maxCapacity;
+    private final Integer currentEnrollment;
+    private final long activeRegistrations;
+    
+    public RegistrationCheck(LocalDate dateOfBirth, String subjectId, Integer maxCapacity, Integer currentEnrollment,
+                             Long activeRegistrations) {
+        this.dateOfBirth = dateOfBirth;
+        this.subjectId = subjectId;
+        this.maxCapacity = maxCapacity;
+        this.currentEnrollment = currentEnrollment;
+        this.activeRegistrations = activeRegistrations != null ? activeRegistrations : 0L;
+    }
+    
+    public int getStudentAge() {
+        return LocalDate.now().getYear() - dateOfBirth.getYear();
+    }
+    
+    public boolean isSubjectFound() {
+        return subjectId != null;
+    }
+    
+    public boolean isSubjectAvailable() {
+        return maxCapacity == -1 || currentEnrollment < maxCapacity;
+    }
+    
+    public boolean isAlreadyRegistered() {
+        return activeRegistrations > 0;
+    }
+}
@@ -1,40 +1,107 @@
 package com.courseregistration.repository;
 
+import com.courseregistration.dto.RegistrationDTO;
 import com.courseregistration.model.Registration;
 import com.courseregistration.model.RegistrationStatus;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface RegistrationRepository extends JpaRepository<Registration, Long> {
     
-    List<Registration> findByStudentId(String studentId);
+    // Read endpoints select straight into RegistrationDTO with the student and subject names joined in,
+    // instead of loading each registration and lazily fetching its Student and Subject per row
+    String SELECT_DTO = "SELECT new com.courseregistration.dto.RegistrationDTO(r.id, r.studentId, r.subjectId, " +
+                        "r.registrationDate, r.status, CONCAT(st.title, ' ', st.firstName, ' ', st.lastName), sb.subjectName, r.version) " +
+                        "FROM Registration r LEFT JOIN r.student st LEFT JOIN r.subject sb ";
     
-    List<Registration> findBySubjectId(String subjectId);
+    @Query(SELECT_DTO + "ORDER BY r.id")
+    List<RegistrationDTO> findAllDTOs();
     
-    List<Registration> findByStatus(RegistrationStatus status);
+    @Query(SELECT_DTO + "WHERE r.id > :after ORDER BY r.id")
+    List<RegistrationDTO> findDTOsAfter(@Param("after") Long after, Pageable pageable);
     
-    @Query("SELECT r FROM Registration r WHERE r.studentId = :studentId AND r.status = 'ACTIVE'")
-    List<Registration> findActiveRegistrationsByStudentId(@Param("studentId") String studentId);
+    @Query(SELECT_DTO + "WHERE r.studentId = :studentId ORDER BY r.id")
+    List<RegistrationDTO> findDTOsByStudentId(@Param("studentId") String studentId);
     
-    @Query("SELECT r FROM Registration r WHERE r.subjectId = :subjectId AND r.status = 'ACTIVE'")
-    List<Registration> findActiveRegistrationsBySubjectId(@Param("subjectId") String subjectId);
+    @Query(SELECT_DTO + "WHERE r.studentId = :studentId AND r.status = 'ACTIVE' ORDER BY r.id")
+    List<RegistrationDTO> findActiveDTOsByStudentId(@Param("studentId") String studentId);
+    
+    @Query(SELECT_DTO + "WHERE r.subjectId = :subjectId ORDER BY r.id")
+    List<RegistrationDTO> findDTOsBySubjectId(@Param("subjectId") String subjectId);
+    
+    @Query(SELECT_DTO + "WHERE r.subjectId = :subjectId AND r.status = 'ACTIVE' ORDER BY r.id")
+    List<RegistrationDTO> findActiveDTOsBySubjectId(@Param("subjectId") String subjectId);
+    
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(SELECT_DTO + "ORDER BY r.id")
+    Stream<RegistrationDTO> streamAllDTOs();
     
     @Query("SELECT COUNT(r) FROM Registration r WHERE r.subjectId = :subjectId AND r.status = 'ACTIVE'")
     Long countActiveRegistrationsBySubjectId(@Param("subjectId") String subjectId);
     
-    @Query("SELECT COUNT(r) FROM Registration r WHERE r.studentId = :studentId AND r.status = 'ACTIVE'")
-    Long countActiveRegistrationsByStudentId(@Param("studentId") String studentId);
-    
     Optional<Registration> findByStudentIdAndSubjectIdAndStatus(String studentId, String subjectId, RegistrationStatus status);
     
     boolean existsByStudentIdAndSubjectIdAndStatus(String studentId, String subjectId, RegistrationStatus status);
     
     @Query("SELECT r FROM Registration r WHERE r.studentId = :studentId AND r.subject.subjectId = :subjectId")
     List<Registration> findByStudentIdAndSubjectId(@Param("studentId") String studentId, @Param("subjectId") String subjectId);
+    
+    // Ordered by subject so a caller locking each subject in turn always takes the locks in the same order
+    @Query("SELECT r FROM Registration r WHERE r.studentId = :studentId AND r.status IN ('ACTIVE', 'WAITLISTED') " +
+           "ORDER BY r.subjectId")
+    List<Registration> findCurrentByStudentId(@Param("studentId") String studentId);
+    
+    @Query("SELECT r.studentId, r.subjectId, r.status FROM Registration r " +
+           "WHERE r.studentId IN :studentIds AND r.status IN ('ACTIVE', 'WAITLISTED', 'COMPLETED')")
+    List<Object[]> findCurrentAndCompletedByStudentIds(@Param("studentIds") Collection<String> studentIds);
+    
+    @Query("SELECT new com.courseregistration.repository.RegistrationCheck(st.dateOfBirth, sb.subjectId, sb.maxCapacity, " +
+           "sb.currentEnrollment, " +
+           "(SELECT COUNT(a) FROM Registration a WHERE a.studentId = st.studentId AND a.subjectId = :subjectId AND a.status IN ('ACTIVE', 'WAITLISTED'))) " +
+           "FROM Student st LEFT JOIN Subject sb ON sb.subjectId = :subjectId WHERE st.studentId = :studentId")
+    Optional<RegistrationCheck> checkRegistration(@Param("studentId") String studentId, @Param("subjectId") String subjectId);
+    
+    @Query("SELECT r.subjectId FROM Registration r WHERE r.id = :id")
+    String findSubjectIdById(@Param("id") Long id);
+    
+    @Query("SELECT r.subjectId FROM Registration r WHERE r.studentId = :studentId AND r.status = 'COMPLETED'")
+    List<String> findCompletedSubjectIds(@Param("studentId") String studentId);
+    
+    @Query("SELECT r.studentId, r.subjectId FROM Registration r WHERE r.studentId IN :studentIds AND r.status = 'COMPLETED'")
+    List<Object[]> findCompletedByStudentIds(@Param("studentIds") Collection<String> studentIds);
+    
+    // Next page of the subject's waitlist in queue order, locked for promotion
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT r FROM Registration r WHERE r.subjectId = :subjectId AND r.status = 'WAITLISTED' " +
+           "AND r.waitlistSequence > :afterSequence ORDER BY r.waitlistSequence")
+    List<Registration> findWaitlistedForUpdate(@Param("subjectId") String subjectId,
+                                               @Param("afterSequence") Long afterSequence, Pageable pageable);
+    
+    @Query("SELECT MAX(r.waitlistSequence) FROM Registration r WHERE r.subjectId = :subjectId AND r.status = 'WAITLISTED'")
+    Long findLastWaitlistSequence(@Param("subjectId") String subjectId);
+    
+    // Range count on idx_registrations_waitlist
+    @Query("SELECT COUNT(r) FROM Registration r WHERE r.subjectId = :subjectId AND r.status = 'WAITLISTED' " +
+           "AND r.waitlistSequence < :sequence")
+    long countWaitlistedAhead(@Param("subjectId") String subjectId, @Param("sequence") Long sequence);
+    
+    @Query("SELECT r.subjectId, r.status, COUNT(r) FROM Registration r GROUP BY r.subjectId, r.status")
+    List<Object[]> countBySubjectAndStatus();
+    
+    @Query("SELECT r.subjectId, r.registrationDate FROM Registration r WHERE r.registrationDate >= :since")
+    List<Object[]> findRegistrationDatesSince(@Param("since") LocalDateTime since);
 }
@@ -1,26 +1,54 @@
 package com.courseregistration.repository;
 
+import com.courseregistration.dto.StudentDTO;
 import com.courseregistration.model.Student;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface StudentRepository extends JpaRepository<Student, String> {
     
-    Optional<Student> findByEmail(String email);
+    // Read endpoints select straight into StudentDTO, so no managed entities or snapshots are created
+    String SELECT_DTO = "SELECT new com.courseregistration.dto.StudentDTO(s.studentId, s.title, s.firstName, s.lastName, " +
+                        "s.dateOfBirth, s.currentSchool, s.email, s.version) FROM Student s ";
     
-    List<Student> findByCurrentSchool(String currentSchool);
+    @Query(SELECT_DTO + "ORDER BY s.studentId")
+    List<StudentDTO> findAllDTOs();
     
-    @Query("SELECT s FROM Student s WHERE s.firstName LIKE %:name% OR s.lastName LIKE %:name%")
-    List<Student> findByNameContaining(@Param("name") String name);
+    @Query(SELECT_DTO + "WHERE s.studentId = :studentId")
+    Optional<StudentDTO> findDTOById(@Param("studentId") String studentId);
+    
+    @Query(SELECT_DTO + "WHERE s.studentId IN :studentIds")
+    List<StudentDTO> findDTOsByIds(@Param("studentIds") Collection<String> studentIds);
+    
+    @Query(SELECT_DTO + "WHERE s.email = :email")
+    Optional<StudentDTO> findDTOByEmail(@Param("email") String email);
+    
+    @Query(SELECT_DTO + "WHERE s.currentSchool = :currentSchool")
+    List<StudentDTO> findDTOsByCurrentSchool(@Param("currentSchool") String currentSchool);
+    
+    @Query(SELECT_DTO + "WHERE s.firstName LIKE %:name% OR s.lastName LIKE %:name%")
+    List<StudentDTO> findDTOsByNameContaining(@Param("name") String name);
+    
+    @Query(SELECT_DTO + "WHERE s.studentId > :after ORDER BY s.studentId")
+    List<StudentDTO> findDTOsAfter(@Param("after") String after, Pageable pageable);
     
     @Query("SELECT s FROM Student s WHERE s.dateOfBirth >= :minDate")
     List<Student> findByAgeGreaterThan(@Param("minDate") java.time.LocalDate minDate);
     
     boolean existsByEmail(String email);
+    
+    // Set-based duplicate checks for bulk imports, one query per chunk instead of one per row
+    @Query("SELECT s.studentId FROM Student s WHERE s.studentId IN :studentIds")
+    List<String> findExistingIds(@Param("studentIds") Collection<String> studentIds);
+    
+    @Query("SELECT s.email FROM Student s WHERE s.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
 }
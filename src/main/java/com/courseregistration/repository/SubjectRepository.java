@@ -1,39 +1,112 @@
 package com.courseregistration.repository;
 
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.event.SeatsChangedEvent;
 import com.courseregistration.model.Subject;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface SubjectRepository extends JpaRepository<Subject, String> {
     
-    List<Subject> findByInstructorName(String instructorName);
+    // Read endpoints select straight into SubjectDTO, so no managed entities or snapshots are created
+    String SELECT_DTO = "SELECT new com.courseregistration.dto.SubjectDTO(s.subjectId, s.subjectName, s.credits, " +
+                        "s.instructorName, s.prerequisiteSubjectId, s.maxCapacity, s.currentEnrollment, s.version) FROM Subject s ";
     
-    List<Subject> findByCredits(Integer credits);
+    @Query(SELECT_DTO + "ORDER BY s.subjectId")
+    List<SubjectDTO> findAllDTOs();
     
-    @Query("SELECT s FROM Subject s WHERE s.maxCapacity = -1 OR s.currentEnrollment < s.maxCapacity")
-    List<Subject> findAvailableSubjects();
+    @Query(SELECT_DTO + "WHERE s.subjectId = :subjectId")
+    Optional<SubjectDTO> findDTOById(@Param("subjectId") String subjectId);
     
-    @Query("SELECT s FROM Subject s WHERE s.prerequisiteSubjectId IS NULL")
-    List<Subject> findSubjectsWithoutPrerequisites();
+    @Query(SELECT_DTO + "WHERE s.subjectId IN :subjectIds")
+    List<SubjectDTO> findDTOsByIds(@Param("subjectIds") Collection<String> subjectIds);
+    
+    @Query(SELECT_DTO + "WHERE s.instructorName = :instructorName")
+    List<SubjectDTO> findDTOsByInstructorName(@Param("instructorName") String instructorName);
+    
+    @Query(SELECT_DTO + "WHERE s.credits = :credits")
+    List<SubjectDTO> findDTOsByCredits(@Param("credits") Integer credits);
+    
+    @Query(SELECT_DTO + "WHERE s.maxCapacity = -1 OR s.currentEnrollment < s.maxCapacity")
+    List<SubjectDTO> findAvailableDTOs();
+    
+    @Query(SELECT_DTO + "WHERE s.prerequisiteSubjectId IS NULL")
+    List<SubjectDTO> findDTOsWithoutPrerequisites();
     
     @Query("SELECT s FROM Subject s WHERE s.prerequisiteSubjectId = :prerequisiteId")
     List<Subject> findByPrerequisiteSubjectId(@Param("prerequisiteId") String prerequisiteId);
     
-    @Query("SELECT s FROM Subject s WHERE s.subjectId LIKE '0550%'")
-    List<Subject> findFacultyCourses();
+    @Query(SELECT_DTO + "WHERE s.subjectId LIKE '0550%'")
+    List<SubjectDTO> findFacultyCourseDTOs();
     
-    @Query("SELECT s FROM Subject s WHERE s.subjectId LIKE '9069%'")
-    List<Subject> findGeneralEducationCourses();
+    @Query(SELECT_DTO + "WHERE s.subjectId LIKE '9069%'")
+    List<SubjectDTO> findGeneralEducationCourseDTOs();
     
-    @Query("SELECT s FROM Subject s WHERE s.subjectName LIKE %:name%")
-    List<Subject> findBySubjectNameContaining(@Param("name") String name);
+    @Query(SELECT_DTO + "WHERE s.subjectName LIKE %:name%")
+    List<SubjectDTO> findDTOsByNameContaining(@Param("name") String name);
+    
+    // Set-based existence check for bulk imports, one query per chunk instead of one per row
+    @Query("SELECT s.subjectId FROM Subject s WHERE s.subjectId IN :subjectIds")
+    List<String> findExistingIds(@Param("subjectIds") Collection<String> subjectIds);
     
     @Query("SELECT s FROM Subject s WHERE s.currentEnrollment < s.maxCapacity OR s.maxCapacity = -1")
     List<Subject> findSubjectsWithAvailableCapacity();
+    
+    // Serializes waitlist joins and seat hand-overs for one subject
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Subject s WHERE s.subjectId = :subjectId")
+    Optional<Subject> findByIdForUpdate(@Param("subjectId") String subjectId);
+    
+    @Modifying
+    @Query("UPDATE Subject s SET s.currentEnrollment = s.currentEnrollment + 1, s.seatVersion = s.seatVersion + 1 " +
+           "WHERE s.subjectId = :subjectId AND (s.maxCapacity = -1 OR s.currentEnrollment < s.maxCapacity)")
+    int reserveSeat(@Param("subjectId") String subjectId);
+    
+    @Modifying
+    @Query("UPDATE Subject s SET s.currentEnrollment = s.currentEnrollment + :seats, s.seatVersion = s.seatVersion + 1 " +
+           "WHERE s.subjectId = :subjectId AND (s.maxCapacity = -1 OR s.currentEnrollment + :seats <= s.maxCapacity)")
+    int reserveSeats(@Param("subjectId") String subjectId, @Param("seats") int seats);
+    
+    @Query("SELECT s.maxCapacity - s.currentEnrollment FROM Subject s WHERE s.subjectId = :subjectId")
+    Integer findRemainingCapacity(@Param("subjectId") String subjectId);
+    
+    // Read back in the writing transaction right after a seat update, while it still holds the row lock
+    @Query("SELECT new com.courseregistration.event.SeatsChangedEvent(s.subjectId, s.currentEnrollment, s.seatVersion) " +
+           "FROM Subject s WHERE s.subjectId = :subjectId")
+    Optional<SeatsChangedEvent> findSeatCounter(@Param("subjectId") String subjectId);
+    
+    @Modifying
+    @Query("UPDATE Subject s SET s.currentEnrollment = s.currentEnrollment - 1, s.seatVersion = s.seatVersion + 1 " +
+           "WHERE s.subjectId = :subjectId AND s.currentEnrollment > 0")
+    int releaseSeat(@Param("subjectId") String subjectId);
+    
+    @Query(SELECT_DTO + "WHERE s.subjectId > :after ORDER BY s.subjectId")
+    List<SubjectDTO> findDTOsAfter(@Param("after") String after, Pageable pageable);
+    
+    // Open subjects the student is not registered or waitlisted for; prerequisites are checked by PrerequisiteGraph
+    @Query(SELECT_DTO + "WHERE (s.maxCapacity = -1 OR s.currentEnrollment < s.maxCapacity) " +
+           "AND NOT EXISTS (SELECT r.id FROM Registration r WHERE r.studentId = :studentId " +
+           "AND r.subjectId = s.subjectId AND r.status IN ('ACTIVE', 'WAITLISTED')) " +
+           "ORDER BY s.subjectId")
+    List<SubjectDTO> findOpenSubjectsNotRegisteredBy(@Param("studentId") String studentId);
+    
+    @Query("SELECT s.subjectId, s.subjectName, s.maxCapacity FROM Subject s")
+    List<Object[]> findAllCapacities();
+    
+    @Query("SELECT new com.courseregistration.event.SeatsChangedEvent(s.subjectId, s.currentEnrollment, s.seatVersion) FROM Subject s")
+    List<SeatsChangedEvent> findAllSeatCounters();
+    
+    @Query("SELECT s.subjectId, s.prerequisiteSubjectId FROM Subject s")
+    List<Object[]> findAllPrerequisiteEdges();
 }
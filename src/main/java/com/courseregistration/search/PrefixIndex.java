@@ -0,0 +1,212 @@
+package com.courseregistration.search;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// In-memory inverted index from token prefixes to document keys.
+// Every token is indexed under its prefixes of MIN_PREFIX..MAX_PREFIX characters, so a typeahead
+// query is a hash lookup per query token plus an intersection; longer query tokens are checked
+// against the candidates' stored tokens. Exact token matches rank above prefix matches.
+public class PrefixIndex<K extends Comparable<K>> {
+    
+    static final int MIN_PREFIX = 2;
+    static final int MAX_PREFIX = 8;
+    
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    
+    private final Map<String, Set<K>> postings = new HashMap<>();
+    private final Map<K, Map<String, Integer>> documents = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    
+    public static class Field {
+        
+        private final String value;
+        private final int weight;
+        
+        private Field(String value, int weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+        
+        // Higher weights rank matches in this field above matches in lower-weighted fields
+        public static Field of(String value, int weight) {
+            return new Field(value, weight);
+        }
+    }
+    
+    public static class Result<K> {
+        
+        private final List<K> keys;
+        private final int total;
+        
+        Result(List<K> keys, int total) {
+            this.keys = keys;
+            this.total = total;
+        }
+        
+        public List<K> getKeys() {
+            return keys;
+        }
+        
+        public int getTotal() {
+            return total;
+        }
+    }
+    
+    public void put(K key, Field... fields) {
+        Map<String, Integer> tokens = new HashMap<>();
+        for (Field field : fields) {
+            if (field.value == null) {
+                continue;
+            }
+            for (String token : tokenize(field.value.toLowerCase(Locale.ROOT))) {
+                tokens.merge(token, field.weight, Math::max);
+            }
+        }
+        
+        lock.writeLock().lock();
+        try {
+            removeInternal(key);
+            documents.put(key, tokens);
+            for (String token : tokens.keySet()) {
+                int longest = Math.min(token.length(), MAX_PREFIX);
+                for (int length = MIN_PREFIX; length <= longest; length++) {
+                    postings.computeIfAbsent(token.substring(0, length), prefix -> new HashSet<>()).add(key);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(K key) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(key);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            documents.clear();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public Result<K> search(String query, int page, int size) {
+        List<String> queryTokens = new ArrayList<>();
+        for (String token : tokenize(query == null ? "" : query.toLowerCase(Locale.ROOT))) {
+            if (token.length() >= MIN_PREFIX) {
+                queryTokens.add(token);
+            }
+        }
+        if (queryTokens.isEmpty()) {
+            return new Result<>(Collections.emptyList(), 0);
+        }
+        
+        Map<K, Integer> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            // Start from the smallest posting list to keep the intersection cheap
+            List<Set<K>> candidateSets = new ArrayList<>();
+            for (String token : queryTokens) {
+                Set<K> keys = postings.get(token.substring(0, Math.min(token.length(), MAX_PREFIX)));
+                if (keys == null) {
+                    return new Result<>(Collections.emptyList(), 0);
+                }
+                candidateSets.add(keys);
+            }
+            candidateSets.sort(Comparator.comparingInt(Set::size));
+            
+            for (K key : candidateSets.get(0)) {
+                int score = score(documents.get(key), queryTokens);
+                if (score > 0) {
+                    scores.put(key, score);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        
+        List<Map.Entry<K, Integer>> ranked = new ArrayList<>(scores.entrySet());
+        ranked.sort(Map.Entry.<K, Integer>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()));
+        int from = Math.min(page * size, ranked.size());
+        int to = Math.min(from + size, ranked.size());
+        List<K> keys = new ArrayList<>(to - from);
+        for (Map.Entry<K, Integer> entry : ranked.subList(from, to)) {
+            keys.add(entry.getKey());
+        }
+        return new Result<>(keys, ranked.size());
+    }
+    
+    // Every query token must match some document token; exact matches count double
+    private int score(Map<String, Integer> tokens, List<String> queryTokens) {
+        int total = 0;
+        for (String queryToken : queryTokens) {
+            int best = 0;
+            for (Map.Entry<String, Integer> token : tokens.entrySet()) {
+                if (token.getKey().equals(queryToken)) {
+                    best = Math.max(best, token.getValue() * 2);
+                } else if (token.getKey().startsWith(queryToken)) {
+                    best = Math.max(best, token.getValue());
+                }
+            }
+            if (best == 0) {
+                return 0;
+            }
+            total += best;
+        }
+        return total;
+    }
+    
+    private void removeInternal(K key) {
+        Map<String, Integer> tokens = documents.remove(key);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens.keySet()) {
+            int longest = Math.min(token.length(), MAX_PREFIX);
+            for (int length = MIN_PREFIX; length <= longest; length++) {
+                String prefix = token.substring(0, length);
+                Set<K> keys = postings.get(prefix);
+                if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                    postings.remove(prefix);
+                }
+            }
+        }
+    }
+    
+    private static List<String> tokenize(String value) {
+        List<String> tokens = new ArrayList<>();
+        for (String token : SEPARATORS.split(value)) {
+            if (!token.isEmpty()) {
+                tokens.add(token);
+            }
+        }
+        return tokens;
+    }
+}
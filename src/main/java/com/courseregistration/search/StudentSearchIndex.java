@@ -0,0 +1,105 @@
+package com.courseregistration.search;
+
+import com.courseregistration.dto.StudentDTO;
+import com.courseregistration.event.StudentChangedEvent;
+import com.courseregistration.model.Student;
+import com.courseregistration.repository.StudentRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Names, emails and schools of all students; built at startup and kept current from StudentService events.
+// A rebuild loads into a fresh index while searches keep using the old one. Events arriving during the
+// load are held back and replayed on top of the loaded rows, so a change committed meanwhile is never
+// overwritten by the older row the load read, and a deleted entry is not brought back
+@Component
+public class StudentSearchIndex {
+    
+    private volatile PrefixIndex<String> index = new PrefixIndex<>();
+    private volatile boolean ready;
+    
+    // Events that arrive while a rebuild is loading, null otherwise; guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<StudentChangedEvent> pending;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        PrefixIndex<String> rebuilt = new PrefixIndex<>();
+        boolean loaded = false;
+        try {
+            for (Student student : studentRepository.findAll()) {
+                rebuilt.put(student.getStudentId(), fields(student.getFirstName(), student.getLastName(),
+                        student.getEmail(), student.getCurrentSchool()));
+            }
+            loaded = true;
+        } finally {
+            // Replay what arrived during the load on top of it, or on the old index if the load failed
+            lock.lock();
+            try {
+                PrefixIndex<String> target = loaded ? rebuilt : index;
+                pending.forEach(event -> apply(target, event));
+                pending = null;
+                index = target;
+            } finally {
+                lock.unlock();
+            }
+        }
+        ready = true;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        lock.lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            } else {
+                apply(index, event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public PrefixIndex.Result<String> search(String query, int page, int size) {
+        return index.search(query, page, size);
+    }
+    
+    private static void apply(PrefixIndex<String> target, StudentChangedEvent event) {
+        if (event.isDeleted()) {
+            target.remove(event.getStudentId());
+        } else {
+            StudentDTO student = event.getStudent();
+            target.put(student.getStudentId(), fields(student.getFirstName(), student.getLastName(),
+                    student.getEmail(), student.getCurrentSchool()));
+        }
+    }
+    
+    private static PrefixIndex.Field[] fields(String firstName, String lastName, String email, String school) {
+        return new PrefixIndex.Field[] {
+                PrefixIndex.Field.of(firstName, 4),
+                PrefixIndex.Field.of(lastName, 4),
+                PrefixIndex.Field.of(email, 2),
+                PrefixIndex.Field.of(school, 1)
+        };
+    }
+}
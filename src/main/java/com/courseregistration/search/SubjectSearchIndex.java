@@ -0,0 +1,99 @@
+package com.courseregistration.search;
+
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.event.SubjectChangedEvent;
+import com.courseregistration.model.Subject;
+import com.courseregistration.repository.SubjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Subject names and instructors; built at startup and kept current from SubjectService events.
+// Rebuilds are sequenced against those events the same way as in StudentSearchIndex
+@Component
+public class SubjectSearchIndex {
+    
+    private volatile PrefixIndex<String> index = new PrefixIndex<>();
+    private volatile boolean ready;
+    
+    // Events that arrive while a rebuild is loading, null otherwise; guarded by lock
+    private final ReentrantLock lock = new ReentrantLock();
+    private List<SubjectChangedEvent> pending;
+    
+    @Autowired
+    private SubjectRepository subjectRepository;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.lock();
+        try {
+            pending = new ArrayList<>();
+        } finally {
+            lock.unlock();
+        }
+        PrefixIndex<String> rebuilt = new PrefixIndex<>();
+        boolean loaded = false;
+        try {
+            for (Subject subject : subjectRepository.findAll()) {
+                rebuilt.put(subject.getSubjectId(), fields(subject.getSubjectName(), subject.getInstructorName()));
+            }
+            loaded = true;
+        } finally {
+            // Replay what arrived during the load on top of it, or on the old index if the load failed
+            lock.lock();
+            try {
+                PrefixIndex<String> target = loaded ? rebuilt : index;
+                pending.forEach(event -> apply(target, event));
+                pending = null;
+                index = target;
+            } finally {
+                lock.unlock();
+            }
+        }
+        ready = true;
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubjectChanged(SubjectChangedEvent event) {
+        lock.lock();
+        try {
+            if (pending != null) {
+                pending.add(event);
+            } else {
+                apply(index, event);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    public boolean isReady() {
+        return ready;
+    }
+    
+    public PrefixIndex.Result<String> search(String query, int page, int size) {
+        return index.search(query, page, size);
+    }
+    
+    private static void apply(PrefixIndex<String> target, SubjectChangedEvent event) {
+        if (event.isDeleted()) {
+            target.remove(event.getSubjectId());
+        } else {
+            SubjectDTO subject = event.getSubject();
+            target.put(subject.getSubjectId(), fields(subject.getSubjectName(), subject.getInstructorName()));
+        }
+    }
+    
+    private static PrefixIndex.Field[] fields(String subjectName, String instructorName) {
+        return new PrefixIndex.Field[] {
+                PrefixIndex.Field.of(subjectName, 2),
+                PrefixIndex.Field.of(instructorName, 1)
+        };
+    }
+}
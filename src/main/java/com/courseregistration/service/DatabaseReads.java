@@ -0,0 +1,31 @@
+package com.courseregistration.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.util.function.Supplier;
+
+// The database side of the service read methods. Those methods start no transaction of their own, so a
+// read the read model answers takes no connection; a read that falls through to the database runs its
+// queries here in one read-only transaction, joining the caller's if there is one.
+@Component
+public class DatabaseReads {
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    private TransactionTemplate readOnly;
+    
+    @PostConstruct
+    public void init() {
+        readOnly = new TransactionTemplate(transactionManager);
+        readOnly.setReadOnly(true);
+    }
+    
+    public <T> T read(Supplier<T> query) {
+        return readOnly.execute(status -> query.get());
+    }
+}
@@ -0,0 +1,111 @@
+package com.courseregistration.service;
+
+import com.courseregistration.exception.StaleVersionException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Runs a read-modify-write in its own transaction and re-runs it from a fresh read when a @Version
+// check fails, up to max-attempts with exponential backoff and full jitter, so writers that collided
+// do not collide again in lockstep. Conflicts are counted per operation and subject in
+// app.optimistic.conflicts to show where contention concentrates.
+@Component
+public class OptimisticRetry {
+    
+    public static final String CONFLICTS_METRIC = "app.optimistic.conflicts";
+    public static final String EXHAUSTED_METRIC = "app.optimistic.retries.exhausted";
+    
+    private static final Logger logger = LoggerFactory.getLogger(OptimisticRetry.class);
+    
+    @Value("${app.optimistic-retry.max-attempts:4}")
+    private int maxAttempts;
+    
+    @Value("${app.optimistic-retry.initial-backoff:10ms}")
+    private Duration initialBackoff;
+    
+    @Value("${app.optimistic-retry.max-backoff:200ms}")
+    private Duration maxBackoff;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private TransactionTemplate transactionTemplate;
+    
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+    
+    // subjectId is only resolved when a conflict is recorded. Inside a caller's transaction the work runs
+    // once, since a failed flush has already marked that transaction for rollback.
+    public <T> T execute(String operation, Supplier<String> subjectId, Supplier<T> work) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return work.get();
+        }
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> work.get());
+            } catch (StaleVersionException e) {
+                throw e;
+            } catch (OptimisticLockingFailureException e) {
+                recordConflict(operation, subjectId);
+                if (attempt >= maxAttempts) {
+                    Counter.builder(EXHAUSTED_METRIC)
+                            .description("Writes that still conflicted after the last retry")
+                            .tag("operation", operation)
+                            .register(meterRegistry)
+                            .increment();
+                    throw e;
+                }
+                logger.debug("{} conflicted on attempt {}, retrying", operation, attempt);
+                sleep(backoff(attempt));
+            }
+        }
+    }
+    
+    private void recordConflict(String operation, Supplier<String> subjectId) {
+        String subject;
+        try {
+            subject = subjectId.get();
+        } catch (RuntimeException e) {
+            subject = null;
+        }
+        Counter.builder(CONFLICTS_METRIC)
+                .description("Optimistic lock conflicts on writes")
+                .tag("operation", operation)
+                .tag("subject", subject != null ? subject : "none")
+                .register(meterRegistry)
+                .increment();
+    }
+    
+    // Full jitter: uniformly random between zero and the capped exponential delay
+    private long backoff(int attempt) {
+        long ceiling = Math.min(maxBackoff.toMillis(), initialBackoff.toMillis() << Math.min(attempt - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling + 1);
+    }
+    
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting to retry", e);
+        }
+    }
+}
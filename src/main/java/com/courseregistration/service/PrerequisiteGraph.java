@@ -0,0 +1,220 @@
+package com.courseregistration.service;
+
+import com.courseregistration.repository.SubjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// In-memory prerequisite DAG over the whole catalog. Each subject gets a dense index and a BitSet of
+// its transitive prerequisites, so "is the student eligible" is a BitSet difference against the
+// student's completed subjects instead of a query per level. Readers always get the last committed
+// graph; a committed subject write builds the next one from one projection query and swaps it in.
+// Only the writing transaction itself builds fresh snapshots, so it sees its own uncommitted change.
+@Component
+public class PrerequisiteGraph {
+    
+    // A lock rather than synchronized: the rebuild runs a query, which would pin a virtual thread
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile Snapshot snapshot;
+    
+    @Autowired
+    private SubjectRepository subjectRepository;
+    
+    // Builds under the lock, so a build that swaps in later also started its query later
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        rebuildLock.lock();
+        try {
+            snapshot = new Snapshot(subjectRepository.findAllPrerequisiteEdges());
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+    
+    // Called by subject writes before they change a row; the graph is rebuilt once when the transaction commits.
+    // Writes outside a transaction, such as the bulk import's chunks, call rebuild() after their commit instead.
+    public void subjectsChanging() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Subject writes must run in a transaction");
+        }
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(this, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PrerequisiteGraph.this);
+                rebuild();
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PrerequisiteGraph.this);
+            }
+        });
+    }
+    
+    // Callers keep one snapshot per operation, since BitSets are only meaningful within the snapshot that made them
+    public Snapshot snapshot() {
+        if (TransactionSynchronizationManager.hasResource(this)) {
+            return new Snapshot(subjectRepository.findAllPrerequisiteEdges());
+        }
+        Snapshot current = snapshot;
+        if (current == null) {
+            rebuildLock.lock();
+            try {
+                if (snapshot == null) {
+                    snapshot = new Snapshot(subjectRepository.findAllPrerequisiteEdges());
+                }
+                current = snapshot;
+            } finally {
+                rebuildLock.unlock();
+            }
+        }
+        return current;
+    }
+    
+    public static final class Snapshot {
+        
+        private static final int NONE = -1;
+        
+        private final Map<String, Integer> indexes = new HashMap<>();
+        private final List<String> subjectIds = new ArrayList<>();
+        private final int[] parents;
+        private final BitSet[] ancestors;
+        
+        Snapshot(List<Object[]> edges) {
+            for (Object[] edge : edges) {
+                addNode((String) edge[0]);
+            }
+            // Prerequisites pointing outside the catalog still get a node, so completion of them can be checked
+            for (Object[] edge : edges) {
+                if (hasText((String) edge[1])) {
+                    addNode((String) edge[1]);
+                }
+            }
+            
+            parents = new int[subjectIds.size()];
+            Arrays.fill(parents, NONE);
+            for (Object[] edge : edges) {
+                if (hasText((String) edge[1])) {
+                    parents[indexes.get((String) edge[0])] = indexes.get((String) edge[1]);
+                }
+            }
+            
+            // Walks stop at a repeated node, so a cycle that slipped in concurrently cannot hang the build
+            ancestors = new BitSet[parents.length];
+            for (int node = 0; node < parents.length; node++) {
+                BitSet chain = new BitSet();
+                for (int parent = parents[node]; parent != NONE && parent != node && !chain.get(parent); parent = parents[parent]) {
+                    chain.set(parent);
+                }
+                ancestors[node] = chain;
+            }
+        }
+        
+        public boolean hasPrerequisites(String subjectId) {
+            Integer index = indexes.get(subjectId);
+            return index != null && !ancestors[index].isEmpty();
+        }
+        
+        public BitSet completedSet(Collection<String> completedSubjectIds) {
+            BitSet completed = new BitSet(subjectIds.size());
+            for (String subjectId : completedSubjectIds) {
+                Integer index = indexes.get(subjectId);
+                if (index != null) {
+                    completed.set(index);
+                }
+            }
+            return completed;
+        }
+        
+        // Groups (studentId, subjectId) rows of completed registrations into one BitSet per student
+        public Map<String, BitSet> completedSetsByStudent(List<Object[]> completedRows) {
+            Map<String, BitSet> completed = new HashMap<>();
+            for (Object[] row : completedRows) {
+                Integer index = indexes.get((String) row[1]);
+                if (index != null) {
+                    completed.computeIfAbsent((String) row[0], key -> new BitSet(subjectIds.size())).set(index);
+                }
+            }
+            return completed;
+        }
+        
+        public boolean isEligible(String subjectId, BitSet completed) {
+            Integer index = indexes.get(subjectId);
+            if (index == null) {
+                return true;
+            }
+            BitSet missing = (BitSet) ancestors[index].clone();
+            missing.andNot(completed);
+            return missing.isEmpty();
+        }
+        
+        // Prerequisites the student still lacks, nearest first
+        public List<String> missingPrerequisites(String subjectId, BitSet completed) {
+            Integer index = indexes.get(subjectId);
+            if (index == null) {
+                return Collections.emptyList();
+            }
+            List<String> missing = new ArrayList<>();
+            BitSet seen = new BitSet();
+            for (int parent = parents[index]; parent != NONE && parent != index && !seen.get(parent); parent = parents[parent]) {
+                seen.set(parent);
+                if (!completed.get(parent)) {
+                    missing.add(subjectIds.get(parent));
+                }
+            }
+            return missing;
+        }
+        
+        // The chain subjectId -> prerequisiteId -> ... -> subjectId if the proposed edge would close a cycle, otherwise empty
+        public List<String> findCycle(String subjectId, String prerequisiteId) {
+            if (!hasText(prerequisiteId)) {
+                return Collections.emptyList();
+            }
+            List<String> path = new ArrayList<>();
+            path.add(subjectId);
+            BitSet seen = new BitSet();
+            String current = prerequisiteId;
+            while (current != null) {
+                path.add(current);
+                if (current.equals(subjectId)) {
+                    return path;
+                }
+                Integer index = indexes.get(current);
+                if (index == null || seen.get(index) || parents[index] == NONE) {
+                    return Collections.emptyList();
+                }
+                seen.set(index);
+                current = subjectIds.get(parents[index]);
+            }
+            return Collections.emptyList();
+        }
+        
+        private void addNode(String subjectId) {
+            if (!indexes.containsKey(subjectId)) {
+                indexes.put(subjectId, subjectIds.size());
+                subjectIds.add(subjectId);
+            }
+        }
+        
+        private static boolean hasText(String value) {
+            return value != null && !value.trim().isEmpty();
+        }
+    }
+}
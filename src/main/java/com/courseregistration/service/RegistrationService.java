@@ -1,24 +1,52 @@
 package com.courseregistration.service;
 
+import com.courseregistration.config.CacheConfig;
+import com.courseregistration.dto.BatchRegistrationResultDTO;
+import com.courseregistration.dto.CursorPageDTO;
 import com.courseregistration.dto.RegistrationDTO;
 import com.courseregistration.dto.RegistrationRequestDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.event.RegistrationChangedEvent;
 import com.courseregistration.model.Registration;
 import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.model.Student;
+import com.courseregistration.model.Subject;
+import com.courseregistration.readmodel.ReadModel;
+import com.courseregistration.repository.RegistrationCheck;
 import com.courseregistration.repository.RegistrationRepository;
 import com.courseregistration.repository.StudentRepository;
 import com.courseregistration.repository.SubjectRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class RegistrationService {
     
+    private static final int MAX_BATCH_SIZE = 1000;
+    
     @Autowired
     private RegistrationRepository registrationRepository;
     
@@ -29,96 +57,352 @@ public class RegistrationService {
     private SubjectRepository subjectRepository;
     
     @Autowired
-    private StudentService studentService;
+    private SubjectService subjectService;
     
     @Autowired
-    private SubjectService subjectService;
+    private SeatReservationService seatReservationService;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
+    @Autowired
+    private PrerequisiteGraph prerequisiteGraph;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
+    @Autowired
+    private CacheManager cacheManager;
     
+    @Autowired
+    private ReadModel readModel;
+    
+    @Autowired
+    private DatabaseReads databaseReads;
+    
+    // Read paths project straight into DTOs with names joined in; convertToDTO is only for entities we just wrote
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<RegistrationDTO> getAllRegistrations() {
-        return registrationRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getAllRegistrations();
+        }
+        return databaseReads.read(registrationRepository::findAllDTOs);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CursorPageDTO<RegistrationDTO> getRegistrationsPage(Long after, int limit) {
+        CursorPageDTO.validateLimit(limit);
+        if (readModel.isServing()) {
+            return CursorPageDTO.of(readModel.getRegistrationsAfter(after != null ? after : 0L, limit + 1), limit, registration -> String.valueOf(registration.getId()));
+        }
+        List<RegistrationDTO> rows = databaseReads.read(() -> registrationRepository
+                .findDTOsAfter(after != null ? after : 0L, PageRequest.of(0, limit + 1)));
+        return CursorPageDTO.of(rows, limit, registration -> String.valueOf(registration.getId()));
+    }
+    
+    // Hands rows to the consumer as the cursor reads them; projected rows never enter the persistence context.
+    // This runs on the async response thread, so there is no consistency token to honour here.
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public void streamAllRegistrations(Consumer<RegistrationDTO> consumer) {
+        if (readModel.isServing()) {
+            readModel.forEachRegistration(consumer);
+            return;
+        }
+        databaseReads.read(() -> {
+            try (Stream<RegistrationDTO> registrations = registrationRepository.streamAllDTOs()) {
+                registrations.forEach(consumer);
+            }
+            return null;
+        });
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<RegistrationDTO> getRegistrationsByStudent(String studentId) {
-        return registrationRepository.findByStudentId(studentId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getRegistrationsByStudent(studentId, false);
+        }
+        return databaseReads.read(() -> registrationRepository.findDTOsByStudentId(studentId));
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<RegistrationDTO> getActiveRegistrationsByStudent(String studentId) {
-        return registrationRepository.findActiveRegistrationsByStudentId(studentId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getRegistrationsByStudent(studentId, true);
+        }
+        return databaseReads.read(() -> registrationRepository.findActiveDTOsByStudentId(studentId));
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<RegistrationDTO> getRegistrationsBySubject(String subjectId) {
-        return registrationRepository.findBySubjectId(subjectId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getRegistrationsBySubject(subjectId, false);
+        }
+        return databaseReads.read(() -> registrationRepository.findDTOsBySubjectId(subjectId));
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<RegistrationDTO> getActiveRegistrationsBySubject(String subjectId) {
-        return registrationRepository.findActiveRegistrationsBySubjectId(subjectId).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getRegistrationsBySubject(subjectId, true);
+        }
+        return databaseReads.read(() -> registrationRepository.findActiveDTOsBySubjectId(subjectId));
     }
     
     public RegistrationDTO registerStudent(RegistrationRequestDTO request) {
         String studentId = request.getStudentId();
         String subjectId = request.getSubjectId();
         
-        // Validate student exists and is eligible
-        if (!studentService.isStudentEligible(studentId)) {
-            throw new IllegalArgumentException("Student is not eligible for registration (must be at least 15 years old)");
+        // A full subject is not a rejection here: the student joins its waitlist instead
+        RegistrationValidation validation = validateRegistration(studentId, subjectId);
+        boolean full = validation.getOutcome() == RegistrationValidation.Outcome.SUBJECT_FULL;
+        if (!full) {
+            validation.throwIfRejected();
         }
         
-        // Validate subject exists and is available
-        if (!subjectService.isSubjectAvailable(subjectId)) {
-            throw new IllegalArgumentException("Subject is not available for registration");
-        }
+        // Reserve a seat atomically; the availability check above is only a fast path
+        Registration registration = !full && seatReservationService.tryReserveSeat(subjectId)
+                ? new Registration(studentId, subjectId)
+                : waitlistService.join(studentId, subjectId);
+        evictAvailableSubjects(studentId);
         
-        // Check if student is already registered for this subject
-        if (registrationRepository.existsByStudentIdAndSubjectIdAndStatus(studentId, subjectId, RegistrationStatus.ACTIVE)) {
+        // The unique active-registration constraint catches a concurrent duplicate
+        Registration savedRegistration;
+        try {
+            savedRegistration = registrationRepository.saveAndFlush(registration);
+        } catch (DataIntegrityViolationException e) {
             throw new IllegalArgumentException("Student is already registered for this subject");
         }
         
-        // Check prerequisites
-        if (subjectService.hasPrerequisite(subjectId)) {
-            String prerequisiteId = subjectService.getPrerequisiteSubjectId(subjectId);
-            if (!hasCompletedPrerequisite(studentId, prerequisiteId)) {
-                throw new IllegalArgumentException("Student has not completed the prerequisite course: " + prerequisiteId);
+        RegistrationDTO dto = convertToDTO(savedRegistration);
+        if (savedRegistration.getStatus() == RegistrationStatus.WAITLISTED) {
+            dto.setWaitlistPosition(waitlistService.getPosition(savedRegistration));
+        }
+        eventPublisher.publishEvent(new RegistrationChangedEvent(dto, null));
+        return dto;
+    }
+    
+    // Validates a whole batch against pre-loaded students, subjects and registrations,
+    // reserves seats once per subject and inserts the accepted rows with JDBC batching
+    public List<BatchRegistrationResultDTO> registerStudents(List<RegistrationRequestDTO> requests) {
+        return registerBatch(requests, false);
+    }
+    
+    // Same as registerStudents, but with the single-registration rules: a full subject waitlists
+    // the student instead of rejecting them. Used by the asynchronous intake to drain its queue.
+    public List<BatchRegistrationResultDTO> registerQueued(List<RegistrationRequestDTO> requests) {
+        return registerBatch(requests, true);
+    }
+    
+    private List<BatchRegistrationResultDTO> registerBatch(List<RegistrationRequestDTO> requests, boolean waitlistWhenFull) {
+        if (requests == null || requests.isEmpty()) {
+            throw new IllegalArgumentException("Batch must contain at least one registration");
+        }
+        if (requests.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch must not contain more than " + MAX_BATCH_SIZE + " registrations");
+        }
+        
+        Set<String> studentIds = new HashSet<>();
+        Set<String> subjectIds = new HashSet<>();
+        for (RegistrationRequestDTO request : requests) {
+            if (request != null && request.getStudentId() != null && request.getSubjectId() != null) {
+                studentIds.add(request.getStudentId());
+                subjectIds.add(request.getSubjectId());
+            }
+        }
+        
+        Map<String, Student> students = studentRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(Student::getStudentId, Function.identity()));
+        Map<String, Subject> subjects = subjectRepository.findAllById(subjectIds).stream()
+                .collect(Collectors.toMap(Subject::getSubjectId, Function.identity()));
+        Set<String> activePairs = new HashSet<>();
+        List<Object[]> completedRows = new ArrayList<>();
+        if (!studentIds.isEmpty()) {
+            for (Object[] row : registrationRepository.findCurrentAndCompletedByStudentIds(studentIds)) {
+                if (row[2] == RegistrationStatus.COMPLETED) {
+                    completedRows.add(row);
+                } else {
+                    activePairs.add(pairKey((String) row[0], (String) row[1]));
+                }
             }
         }
+        PrerequisiteGraph.Snapshot graph = prerequisiteGraph.snapshot();
+        Map<String, BitSet> completedByStudent = graph.completedSetsByStudent(completedRows);
         
-        // Create registration
-        Registration registration = new Registration(studentId, subjectId);
-        Registration savedRegistration = registrationRepository.save(registration);
+        List<BatchRegistrationResultDTO> results = new ArrayList<>(requests.size());
+        Map<String, List<BatchRegistrationResultDTO>> acceptedBySubject = new LinkedHashMap<>();
+        for (int i = 0; i < requests.size(); i++) {
+            RegistrationRequestDTO request = requests.get(i);
+            String studentId = request != null ? request.getStudentId() : null;
+            String subjectId = request != null ? request.getSubjectId() : null;
+            BatchRegistrationResultDTO result = new BatchRegistrationResultDTO(i, studentId, subjectId);
+            results.add(result);
+            
+            RegistrationValidation validation;
+            if (studentId == null || subjectId == null) {
+                validation = RegistrationValidation.rejected(RegistrationValidation.Outcome.INVALID_REQUEST,
+                        "Student ID and subject ID are required");
+            } else {
+                RegistrationCheck check = toCheck(students.get(studentId), subjects.get(subjectId), activePairs);
+                validation = validate(studentId, subjectId, check, graph,
+                        () -> completedByStudent.getOrDefault(studentId, new BitSet()));
+            }
+            boolean waitlist = waitlistWhenFull && validation.getOutcome() == RegistrationValidation.Outcome.SUBJECT_FULL;
+            if (!validation.isAccepted() && !waitlist) {
+                reject(result, validation.getOutcome(), validation.getMessage());
+                continue;
+            }
+            
+            // Later items in the same batch see this one as an existing registration
+            activePairs.add(pairKey(studentId, subjectId));
+            acceptedBySubject.computeIfAbsent(subjectId, key -> new ArrayList<>()).add(result);
+        }
         
-        // Update subject enrollment count
-        subjectService.updateEnrollmentCount(subjectId);
+        List<Registration> registrations = new ArrayList<>();
+        List<BatchRegistrationResultDTO> registered = new ArrayList<>();
+        for (Map.Entry<String, List<BatchRegistrationResultDTO>> entry : acceptedBySubject.entrySet()) {
+            List<BatchRegistrationResultDTO> accepted = entry.getValue();
+            int granted = seatReservationService.reserveSeats(entry.getKey(), accepted.size());
+            for (int i = 0; i < accepted.size(); i++) {
+                BatchRegistrationResultDTO result = accepted.get(i);
+                if (i < granted) {
+                    registrations.add(new Registration(result.getStudentId(), result.getSubjectId()));
+                    registered.add(result);
+                    evictAvailableSubjects(result.getStudentId());
+                } else if (waitlistWhenFull) {
+                    // Saved right away so the next waitlisted student gets the following sequence number
+                    registrations.add(registrationRepository.save(waitlistService.join(result.getStudentId(), result.getSubjectId())));
+                    registered.add(result);
+                    evictAvailableSubjects(result.getStudentId());
+                } else {
+                    reject(result, RegistrationValidation.Outcome.SUBJECT_FULL, "Subject is not available for registration");
+                }
+            }
+        }
         
-        return convertToDTO(savedRegistration);
+        List<Registration> savedRegistrations = registrationRepository.saveAll(registrations);
+        try {
+            registrationRepository.flush();
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Batch conflicts with a concurrent registration, please retry");
+        }
+        for (int i = 0; i < registered.size(); i++) {
+            BatchRegistrationResultDTO result = registered.get(i);
+            Registration saved = savedRegistrations.get(i);
+            result.setSuccess(true);
+            result.setOutcome(RegistrationValidation.Outcome.ACCEPTED.name());
+            result.setRegistration(convertToDTO(saved));
+            if (saved.getStatus() == RegistrationStatus.WAITLISTED) {
+                result.setMessage("Subject is full, student added to the waitlist");
+                result.getRegistration().setWaitlistPosition(waitlistService.getPosition(saved));
+            } else {
+                result.setMessage("Student registered successfully");
+            }
+            eventPublisher.publishEvent(new RegistrationChangedEvent(result.getRegistration(), null));
+        }
+        return results;
+    }
+    
+    // Student, subject and duplicate checks in a single query; completed subjects are
+    // loaded with a second one only when the subject has prerequisites
+    @Transactional(readOnly = true)
+    public RegistrationValidation validateRegistration(String studentId, String subjectId) {
+        RegistrationCheck check = registrationRepository.checkRegistration(studentId, subjectId).orElse(null);
+        PrerequisiteGraph.Snapshot graph = prerequisiteGraph.snapshot();
+        return validate(studentId, subjectId, check, graph,
+                () -> graph.completedSet(registrationRepository.findCompletedSubjectIds(studentId)));
+    }
+    
+    private RegistrationValidation validate(String studentId, String subjectId, RegistrationCheck check,
+                                            PrerequisiteGraph.Snapshot graph, Supplier<BitSet> completedSubjects) {
+        if (check == null) {
+            return RegistrationValidation.rejected(RegistrationValidation.Outcome.STUDENT_NOT_FOUND,
+                    "Student not found with ID: " + studentId);
+        }
+        if (check.getStudentAge() < 15) {
+            return RegistrationValidation.rejected(RegistrationValidation.Outcome.STUDENT_NOT_ELIGIBLE,
+                    "Student is not eligible for registration (must be at least 15 years old)");
+        }
+        if (!check.isSubjectFound()) {
+            return RegistrationValidation.rejected(RegistrationValidation.Outcome.SUBJECT_NOT_FOUND,
+                    "Subject not found with ID: " + subjectId);
+        }
+        if (check.isAlreadyRegistered()) {
+            return RegistrationValidation.rejected(RegistrationValidation.Outcome.ALREADY_REGISTERED,
+                    "Student is already registered for this subject");
+        }
+        // The whole prerequisite chain must be completed, not only the direct prerequisite
+        if (graph.hasPrerequisites(subjectId)) {
+            List<String> missing = graph.missingPrerequisites(subjectId, completedSubjects.get());
+            if (!missing.isEmpty()) {
+                return RegistrationValidation.rejected(RegistrationValidation.Outcome.PREREQUISITE_NOT_MET,
+                        "Student has not completed the prerequisite course: " + String.join(", ", missing));
+            }
+        }
+        // Checked last so registerStudent knows every other rule passed before waitlisting
+        if (!check.isSubjectAvailable()) {
+            return RegistrationValidation.rejected(RegistrationValidation.Outcome.SUBJECT_FULL,
+                    "Subject is not available for registration");
+        }
+        return RegistrationValidation.accepted();
     }
     
+    // Cancel and complete are optimistic: if a waitlist promotion or another transition changed the
+    // registration first, the @Version check fails and the attempt re-runs against the new status
+    @Transactional(propagation = Propagation.SUPPORTS)
     public RegistrationDTO cancelRegistration(Long registrationId) {
+        return optimisticRetry.execute("registration.cancel", () -> registrationRepository.findSubjectIdById(registrationId),
+                () -> applyCancel(registrationId));
+    }
+    
+    private RegistrationDTO applyCancel(Long registrationId) {
         Registration registration = registrationRepository.findById(registrationId)
                 .orElseThrow(() -> new IllegalArgumentException("Registration not found with ID: " + registrationId));
         
-        if (registration.getStatus() != RegistrationStatus.ACTIVE) {
-            throw new IllegalArgumentException("Registration is not active and cannot be cancelled");
+        RegistrationStatus status = registration.getStatus();
+        if (status != RegistrationStatus.ACTIVE && status != RegistrationStatus.WAITLISTED) {
+            throw new IllegalArgumentException("Registration is not active or waitlisted and cannot be cancelled");
         }
-        
+        return cancel(registration);
+    }
+    
+    // Deleting a student cascades their registrations away, so the student's current registrations are
+    // cancelled first and every seat they hold goes to the waitlist or back to the pool, as on a cancel.
+    // Must run in the deleting transaction; subjects are visited in ID order to keep the lock order stable.
+    // Returns every registration the delete will remove, each CANCELLED or COMPLETED by then.
+    @Transactional(propagation = Propagation.MANDATORY)
+    public List<RegistrationDTO> cancelRegistrationsOf(String studentId) {
+        for (Registration registration : registrationRepository.findCurrentByStudentId(studentId)) {
+            cancel(registration);
+        }
+        return registrationRepository.findDTOsByStudentId(studentId);
+    }
+    
+    private RegistrationDTO cancel(Registration registration) {
+        RegistrationStatus previousStatus = registration.getStatus();
         registration.setStatus(RegistrationStatus.CANCELLED);
-        Registration updatedRegistration = registrationRepository.save(registration);
+        Registration updatedRegistration = registrationRepository.saveAndFlush(registration);
         
-        // Update subject enrollment count
-        subjectService.updateEnrollmentCount(registration.getSubjectId());
+        // Leaving the waitlist frees no seat
+        if (previousStatus == RegistrationStatus.ACTIVE) {
+            freeSeat(registration.getSubjectId());
+        }
+        evictAvailableSubjects(registration.getStudentId());
         
-        return convertToDTO(updatedRegistration);
+        RegistrationDTO dto = convertToDTO(updatedRegistration);
+        eventPublisher.publishEvent(new RegistrationChangedEvent(dto, previousStatus));
+        return dto;
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public RegistrationDTO completeRegistration(Long registrationId) {
+        return optimisticRetry.execute("registration.complete", () -> registrationRepository.findSubjectIdById(registrationId),
+                () -> applyComplete(registrationId));
+    }
+    
+    private RegistrationDTO applyComplete(Long registrationId) {
         Registration registration = registrationRepository.findById(registrationId)
                 .orElseThrow(() -> new IllegalArgumentException("Registration not found with ID: " + registrationId));
         
@@ -127,45 +411,88 @@ public class RegistrationService {
         }
         
         registration.setStatus(RegistrationStatus.COMPLETED);
-        Registration updatedRegistration = registrationRepository.save(registration);
+        Registration updatedRegistration = registrationRepository.saveAndFlush(registration);
         
-        return convertToDTO(updatedRegistration);
+        // Completed registrations no longer count towards current enrollment
+        freeSeat(registration.getSubjectId());
+        evictAvailableSubjects(registration.getStudentId());
+        
+        RegistrationDTO dto = convertToDTO(updatedRegistration);
+        eventPublisher.publishEvent(new RegistrationChangedEvent(dto, RegistrationStatus.ACTIVE));
+        return dto;
     }
     
-    public List<RegistrationDTO> getAvailableSubjectsForStudent(String studentId) {
-        // Get all subjects
-        List<String> allSubjectIds = subjectRepository.findAll().stream()
-                .map(subject -> subject.getSubjectId())
-                .collect(Collectors.toList());
-        
-        // Get registered subject IDs for this student
-        List<String> registeredSubjectIds = registrationRepository.findActiveRegistrationsByStudentId(studentId).stream()
-                .map(registration -> registration.getSubjectId())
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public RegistrationDTO getWaitlistPosition(Long registrationId) {
+        Registration registration = registrationRepository.findById(registrationId)
+                .orElseThrow(() -> new IllegalArgumentException("Registration not found with ID: " + registrationId));
         
-        // Filter out already registered subjects
-        List<String> availableSubjectIds = allSubjectIds.stream()
-                .filter(subjectId -> !registeredSubjectIds.contains(subjectId))
-                .collect(Collectors.toList());
+        if (registration.getStatus() != RegistrationStatus.WAITLISTED) {
+            throw new IllegalArgumentException("Registration is not on the waitlist");
+        }
         
-        // Convert to DTOs
-        return availableSubjectIds.stream()
-                .map(subjectId -> {
-                    RegistrationDTO dto = new RegistrationDTO();
-                    dto.setSubjectId(subjectId);
-                    // You can add more details here if needed
-                    return dto;
-                })
-                .collect(Collectors.toList());
+        RegistrationDTO dto = convertToDTO(registration);
+        dto.setWaitlistPosition(waitlistService.getPosition(registration));
+        return dto;
     }
     
-    private boolean hasCompletedPrerequisite(String studentId, String prerequisiteId) {
-        return registrationRepository.findByStudentIdAndSubjectId(studentId, prerequisiteId).stream()
-                .anyMatch(registration -> registration.getStatus() == RegistrationStatus.COMPLETED);
+    @Cacheable(cacheNames = CacheConfig.AVAILABLE_SUBJECTS, key = "#studentId", condition = "!@readModel.enabled")
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<SubjectDTO> getAvailableSubjectsForStudent(String studentId) {
+        if (readModel.isServing()) {
+            return readModel.getAvailableSubjectsForStudent(studentId);
+        }
+        return databaseReads.read(() -> {
+            List<SubjectDTO> openSubjects = subjectRepository.findOpenSubjectsNotRegisteredBy(studentId);
+            PrerequisiteGraph.Snapshot graph = prerequisiteGraph.snapshot();
+            BitSet completed = graph.completedSet(registrationRepository.findCompletedSubjectIds(studentId));
+            return openSubjects.stream()
+                    .filter(subject -> graph.isEligible(subject.getSubjectId(), completed))
+                    .collect(Collectors.toList());
+        });
     }
     
     // Helper methods
-    private RegistrationDTO convertToDTO(Registration registration) {
+    // The seat goes to the head of the waitlist if anyone is eligible, otherwise back to the pool
+    private void freeSeat(String subjectId) {
+        waitlistService.promoteOrRelease(subjectId)
+                .ifPresent(promoted -> {
+                    evictAvailableSubjects(promoted.getStudentId());
+                    eventPublisher.publishEvent(new RegistrationChangedEvent(convertToDTO(promoted), RegistrationStatus.WAITLISTED));
+                });
+    }
+    
+    private void evictAvailableSubjects(String studentId) {
+        Cache cache = cacheManager.getCache(CacheConfig.AVAILABLE_SUBJECTS);
+        if (cache != null) {
+            cache.evict(studentId);
+        }
+    }
+    
+    private RegistrationCheck toCheck(Student student, Subject subject, Set<String> activePairs) {
+        if (student == null) {
+            return null;
+        }
+        if (subject == null) {
+            return new RegistrationCheck(student.getDateOfBirth(), null, null, null, 0L);
+        }
+        String studentId = student.getStudentId();
+        long active = activePairs.contains(pairKey(studentId, subject.getSubjectId())) ? 1L : 0L;
+        return new RegistrationCheck(student.getDateOfBirth(), subject.getSubjectId(), subject.getMaxCapacity(),
+                subject.getCurrentEnrollment(), active);
+    }
+    
+    private static String pairKey(String studentId, String subjectId) {
+        return studentId + ':' + subjectId;
+    }
+    
+    private void reject(BatchRegistrationResultDTO result, RegistrationValidation.Outcome outcome, String message) {
+        result.setSuccess(false);
+        result.setOutcome(outcome.name());
+        result.setMessage(message);
+    }
+    
+    static RegistrationDTO convertToDTO(Registration registration) {
         RegistrationDTO dto = new RegistrationDTO(
                 registration.getStudentId(),
                 registration.getSubjectId()
@@ -173,6 +500,7 @@ public class RegistrationService {
         dto.setId(registration.getId());
         dto.setRegistrationDate(registration.getRegistrationDate());
         dto.setStatus(registration.getStatus());
+        dto.setVersion(registration.getVersion());
         
         // Add student and subject names if entities are loaded
         if (registration.getStudent() != null) {
@@ -0,0 +1,52 @@
+package com.courseregistration.service;
+
+// Outcome of RegistrationService.validateRegistration, explaining why a registration would be rejected
+public class RegistrationValidation {
+    
+    public enum Outcome {
+        ACCEPTED,
+        INVALID_REQUEST,
+        STUDENT_NOT_FOUND,
+        STUDENT_NOT_ELIGIBLE,
+        SUBJECT_NOT_FOUND,
+        SUBJECT_FULL,
+        ALREADY_REGISTERED,
+        PREREQUISITE_NOT_MET
+    }
+    
+    private static final RegistrationValidation ACCEPTED = new RegistrationValidation(Outcome.ACCEPTED, null);
+    
+    private final Outcome outcome;
+    private final String message;
+    
+    private RegistrationValidation(Outcome outcome, String message) {
+        this.outcome = outcome;
+        this.message = message;
+    }
+    
+    public static RegistrationValidation accepted() {
+        return ACCEPTED;
+    }
+    
+    public static RegistrationValidation rejected(Outcome outcome, String message) {
+        return new RegistrationValidation(outcome, message);
+    }
+    
+    public boolean isAccepted() {
+        return outcome == Outcome.ACCEPTED;
+    }
+    
+    public void throwIfRejected() {
+        if (!isAccepted()) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+    
+    public Outcome getOutcome() {
+        return outcome;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+}
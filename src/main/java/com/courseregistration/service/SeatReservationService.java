@@ -0,0 +1,75 @@
+package com.courseregistration.service;
+
+import com.courseregistration.config.CacheConfig;
+import com.courseregistration.repository.SubjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+// Seats are reserved with a single conditional UPDATE on the subjects row, so the
+// capacity check and the increment happen atomically under the database row lock
+// and currentEnrollment can never exceed maxCapacity, however many requests race.
+// Every seat change evicts the cached subject and the 'available' view, the only view whose
+// membership depends on enrollment; the other views list subject IDs and pick up the new count
+// from the subject cache. Each update also publishes the counter as this transaction left it.
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class SeatReservationService {
+    
+    @Autowired
+    private SubjectRepository subjectRepository;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBJECTS, key = "#subjectId"),
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_VIEWS, key = "'available'")
+    })
+    public boolean tryReserveSeat(String subjectId) {
+        if (subjectRepository.reserveSeat(subjectId) == 1) {
+            publishSeatsChanged(subjectId);
+            return true;
+        }
+        return false;
+    }
+    
+    // Reserves up to the requested number of seats in one conditional update and returns how many were granted
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBJECTS, key = "#subjectId"),
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_VIEWS, key = "'available'")
+    })
+    public int reserveSeats(String subjectId, int requested) {
+        int seats = requested;
+        while (seats > 0) {
+            if (subjectRepository.reserveSeats(subjectId, seats) == 1) {
+                publishSeatsChanged(subjectId);
+                return seats;
+            }
+            Integer remaining = subjectRepository.findRemainingCapacity(subjectId);
+            if (remaining == null) {
+                return 0;
+            }
+            seats = Math.min(seats - 1, Math.max(remaining, 0));
+        }
+        return 0;
+    }
+    
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBJECTS, key = "#subjectId"),
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_VIEWS, key = "'available'")
+    })
+    public void releaseSeat(String subjectId) {
+        if (subjectRepository.releaseSeat(subjectId) == 1) {
+            publishSeatsChanged(subjectId);
+        }
+    }
+    
+    private void publishSeatsChanged(String subjectId) {
+        subjectRepository.findSeatCounter(subjectId).ifPresent(eventPublisher::publishEvent);
+    }
+}
@@ -1,49 +1,120 @@
 package com.courseregistration.service;
 
+import com.courseregistration.dto.CursorPageDTO;
+import com.courseregistration.dto.RegistrationDTO;
 import com.courseregistration.dto.StudentDTO;
+import com.courseregistration.event.StudentChangedEvent;
+import com.courseregistration.exception.StaleVersionException;
 import com.courseregistration.model.Student;
+import com.courseregistration.readmodel.ReadModel;
 import com.courseregistration.repository.StudentRepository;
+import com.courseregistration.search.StudentSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class StudentService {
     
+    static final int MAX_SEARCH_PAGE_SIZE = 100;
+    
     @Autowired
     private StudentRepository studentRepository;
     
+    @Autowired
+    private StudentSearchIndex studentSearchIndex;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private OptimisticRetry optimisticRetry;
+    
+    @Autowired
+    private ReadModel readModel;
+    
+    @Autowired
+    private DatabaseReads databaseReads;
+    
+    @Autowired
+    private RegistrationService registrationService;
+    
+    // Read paths project straight into StudentDTO; convertToDTO is only for entities we just wrote
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<StudentDTO> getAllStudents() {
-        return studentRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getAllStudents();
+        }
+        return databaseReads.read(studentRepository::findAllDTOs);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CursorPageDTO<StudentDTO> getStudentsPage(String after, int limit) {
+        CursorPageDTO.validateLimit(limit);
+        if (readModel.isServing()) {
+            return CursorPageDTO.of(readModel.getStudentsAfter(after != null ? after : "", limit + 1), limit, StudentDTO::getStudentId);
+        }
+        List<StudentDTO> rows = databaseReads.read(() -> studentRepository
+                .findDTOsAfter(after != null ? after : "", PageRequest.of(0, limit + 1)));
+        return CursorPageDTO.of(rows, limit, StudentDTO::getStudentId);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<StudentDTO> getStudentById(String studentId) {
-        return studentRepository.findById(studentId)
-                .map(this::convertToDTO);
+        if (readModel.isServing()) {
+            return readModel.getStudent(studentId);
+        }
+        return databaseReads.read(() -> studentRepository.findDTOById(studentId));
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<StudentDTO> getStudentByEmail(String email) {
-        return studentRepository.findByEmail(email)
-                .map(this::convertToDTO);
+        if (readModel.isServing()) {
+            return readModel.getStudentByEmail(email);
+        }
+        return databaseReads.read(() -> studentRepository.findDTOByEmail(email));
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<StudentDTO> getStudentsBySchool(String school) {
-        return studentRepository.findByCurrentSchool(school).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getStudentsBySchool(school);
+        }
+        return databaseReads.read(() -> studentRepository.findDTOsByCurrentSchool(school));
     }
     
-    public List<StudentDTO> searchStudentsByName(String name) {
-        return studentRepository.findByNameContaining(name).stream()
-                .map(this::convertToDTO)
+    // Ranked prefix search over names, emails and schools, served from StudentSearchIndex
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<StudentDTO> searchStudentsByName(String name, int page, int size) {
+        validateSearchPage(page, size);
+        if (!studentSearchIndex.isReady()) {
+            return databaseReads.read(() -> studentRepository.findDTOsByNameContaining(name)).stream()
+                    .skip((long) page * size)
+                    .limit(size)
+                    .collect(Collectors.toList());
+        }
+        
+        List<String> studentIds = studentSearchIndex.search(name, page, size).getKeys();
+        List<StudentDTO> rows = readModel.isServing()
+                ? readModel.getStudents(studentIds)
+                : databaseReads.read(() -> studentRepository.findDTOsByIds(studentIds));
+        Map<String, StudentDTO> students = rows.stream()
+                .collect(Collectors.toMap(StudentDTO::getStudentId, Function.identity()));
+        return studentIds.stream()
+                .map(students::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
     
@@ -65,12 +136,22 @@ public class StudentService {
         
         Student student = convertToEntity(studentDTO);
         Student savedStudent = studentRepository.save(student);
-        return convertToDTO(savedStudent);
+        StudentDTO result = convertToDTO(savedStudent);
+        eventPublisher.publishEvent(new StudentChangedEvent(result.getStudentId(), result));
+        return result;
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public StudentDTO updateStudent(String studentId, StudentDTO studentDTO) {
+        return optimisticRetry.execute("student.update", () -> null, () -> applyStudentUpdate(studentId, studentDTO));
+    }
+    
+    private StudentDTO applyStudentUpdate(String studentId, StudentDTO studentDTO) {
         Student existingStudent = studentRepository.findById(studentId)
                 .orElseThrow(() -> new IllegalArgumentException("Student not found with ID: " + studentId));
+        if (studentDTO.getVersion() != null && !studentDTO.getVersion().equals(existingStudent.getVersion())) {
+            throw new StaleVersionException("Student " + studentId + " was modified by someone else, reload it and try again");
+        }
         
         // Check if email is being changed and if it already exists
         if (!existingStudent.getEmail().equals(studentDTO.getEmail()) && 
@@ -91,25 +172,49 @@ public class StudentService {
         existingStudent.setCurrentSchool(studentDTO.getCurrentSchool());
         existingStudent.setEmail(studentDTO.getEmail());
         
-        Student updatedStudent = studentRepository.save(existingStudent);
-        return convertToDTO(updatedStudent);
+        Student updatedStudent = studentRepository.saveAndFlush(existingStudent);
+        StudentDTO result = convertToDTO(updatedStudent);
+        eventPublisher.publishEvent(new StudentChangedEvent(studentId, result));
+        return result;
     }
     
+    // Retried like an update, since cancelling the student's registrations can race a concurrent cancel
+    @Transactional(propagation = Propagation.SUPPORTS)
     public void deleteStudent(String studentId) {
+        optimisticRetry.execute("student.delete", () -> null, () -> {
+            applyStudentDelete(studentId);
+            return null;
+        });
+    }
+    
+    private void applyStudentDelete(String studentId) {
         if (!studentRepository.existsById(studentId)) {
             throw new IllegalArgumentException("Student not found with ID: " + studentId);
         }
+        // The delete cascades to the registrations, which would otherwise leave their seats taken
+        List<RegistrationDTO> removed = registrationService.cancelRegistrationsOf(studentId);
         studentRepository.deleteById(studentId);
+        eventPublisher.publishEvent(new StudentChangedEvent(studentId, null, removed));
     }
     
+    @Transactional(readOnly = true)
     public boolean isStudentEligible(String studentId) {
         Optional<Student> student = studentRepository.findById(studentId);
         return student.isPresent() && student.get().getAge() >= 15;
     }
     
     // Helper methods
-    private StudentDTO convertToDTO(Student student) {
-        return new StudentDTO(
+    static void validateSearchPage(int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("Page must not be negative");
+        }
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_SEARCH_PAGE_SIZE);
+        }
+    }
+    
+    StudentDTO convertToDTO(Student student) {
+        StudentDTO dto = new StudentDTO(
                 student.getStudentId(),
                 student.getTitle(),
                 student.getFirstName(),
@@ -118,6 +223,8 @@ public class StudentService {
                 student.getCurrentSchool(),
                 student.getEmail()
         );
+        dto.setVersion(student.getVersion());
+        return dto;
     }
     
     private Student convertToEntity(StudentDTO studentDTO) {
@@ -1,14 +1,39 @@
 package com.courseregistration.service;
 
+import com.courseregistration.config.CacheConfig;
+import com.courseregistration.dto.CursorPageDTO;
 import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.dto.SubjectStatsDTO;
+import com.courseregistration.event.RegistrationChangedEvent;
+import com.courseregistration.event.SubjectChangedEvent;
+import com.courseregistration.exception.StaleVersionException;
+import com.courseregistration.model.Registration;
+import com.courseregistration.model.RegistrationStatus;
 import com.courseregistration.model.Subject;
+import com.courseregistration.readmodel.ReadModel;
 import com.courseregistration.repository.SubjectRepository;
+import com.courseregistration.search.SubjectSearchIndex;
+import com.courseregistration.stats.EnrollmentStatistics;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
@@ -18,59 +43,138 @@ public class SubjectService {
     @Autowired
     private SubjectRepository subjectRepository;
     
+    @Autowired
+    private SubjectSearchIndex subjectSearchIndex;
+    
+    @Autowired
+    private PrerequisiteGraph prerequisiteGraph;
+    
+    @Autowired
+    private EnrollmentStatistics enrollmentStatistics;
+    
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    
+    @Autowired
+    private ReadModel readModel;
+    
+    @Autowired
+    private DatabaseReads databaseReads;
+    
+    @Autowired
+    private WaitlistService waitlistService;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    // Read paths project straight into SubjectDTO; convertToDTO is only for entities we just wrote.
+    // The read model answers first; the caches below only front the database when it is switched off.
+    // Catalog views cache subject IDs only and take the subjects themselves from the SUBJECTS cache,
+    // so a seat change evicts one subject and the 'available' view instead of every view listing it
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<SubjectDTO> getAllSubjects() {
-        return subjectRepository.findAll().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getAllSubjects();
+        }
+        return cachedView("all", subjectRepository::findAllDTOs);
+    }
+    
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public CursorPageDTO<SubjectDTO> getSubjectsPage(String after, int limit) {
+        CursorPageDTO.validateLimit(limit);
+        if (readModel.isServing()) {
+            return CursorPageDTO.of(readModel.getSubjectsAfter(after != null ? after : "", limit + 1), limit, SubjectDTO::getSubjectId);
+        }
+        List<SubjectDTO> rows = databaseReads.read(() -> subjectRepository
+                .findDTOsAfter(after != null ? after : "", PageRequest.of(0, limit + 1)));
+        return CursorPageDTO.of(rows, limit, SubjectDTO::getSubjectId);
     }
     
+    @Cacheable(cacheNames = CacheConfig.SUBJECTS, key = "#subjectId", condition = "!@readModel.enabled")
+    @Transactional(propagation = Propagation.SUPPORTS)
     public Optional<SubjectDTO> getSubjectById(String subjectId) {
-        return subjectRepository.findById(subjectId)
-                .map(this::convertToDTO);
+        if (readModel.isServing()) {
+            return readModel.getSubject(subjectId);
+        }
+        return databaseReads.read(() -> subjectRepository.findDTOById(subjectId));
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<SubjectDTO> getAvailableSubjects() {
-        return subjectRepository.findAvailableSubjects().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getAvailableSubjects();
+        }
+        return cachedView("available", subjectRepository::findAvailableDTOs);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<SubjectDTO> getSubjectsWithoutPrerequisites() {
-        return subjectRepository.findSubjectsWithoutPrerequisites().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getSubjectsWithoutPrerequisites();
+        }
+        return cachedView("noPrerequisites", subjectRepository::findDTOsWithoutPrerequisites);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<SubjectDTO> getFacultyCourses() {
-        return subjectRepository.findFacultyCourses().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getFacultyCourses();
+        }
+        return cachedView("faculty", subjectRepository::findFacultyCourseDTOs);
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<SubjectDTO> getGeneralEducationCourses() {
-        return subjectRepository.findGeneralEducationCourses().stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getGeneralEducationCourses();
+        }
+        return cachedView("generalEducation", subjectRepository::findGeneralEducationCourseDTOs);
     }
     
-    public List<SubjectDTO> searchSubjectsByName(String name) {
-        return subjectRepository.findBySubjectNameContaining(name).stream()
-                .map(this::convertToDTO)
+    // Ranked prefix search over subject names and instructors, served from SubjectSearchIndex
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<SubjectDTO> searchSubjectsByName(String name, int page, int size) {
+        StudentService.validateSearchPage(page, size);
+        if (!subjectSearchIndex.isReady()) {
+            return databaseReads.read(() -> subjectRepository.findDTOsByNameContaining(name)).stream()
+                    .skip((long) page * size)
+                    .limit(size)
+                    .collect(Collectors.toList());
+        }
+        
+        List<String> subjectIds = subjectSearchIndex.search(name, page, size).getKeys();
+        List<SubjectDTO> rows = readModel.isServing()
+                ? readModel.getSubjects(subjectIds)
+                : databaseReads.read(() -> subjectRepository.findDTOsByIds(subjectIds));
+        Map<String, SubjectDTO> subjects = rows.stream()
+                .collect(Collectors.toMap(SubjectDTO::getSubjectId, Function.identity()));
+        return subjectIds.stream()
+                .map(subjects::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<SubjectDTO> getSubjectsByInstructor(String instructorName) {
-        return subjectRepository.findByInstructorName(instructorName).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getSubjectsByInstructor(instructorName);
+        }
+        return databaseReads.read(() -> subjectRepository.findDTOsByInstructorName(instructorName));
     }
     
+    @Transactional(propagation = Propagation.SUPPORTS)
     public List<SubjectDTO> getSubjectsByCredits(Integer credits) {
-        return subjectRepository.findByCredits(credits).stream()
-                .map(this::convertToDTO)
-                .collect(Collectors.toList());
+        if (readModel.isServing()) {
+            return readModel.getSubjectsByCredits(credits);
+        }
+        return databaseReads.read(() -> subjectRepository.findDTOsByCredits(credits));
     }
     
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBJECTS, key = "#subjectDTO.subjectId"),
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_VIEWS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.AVAILABLE_SUBJECTS, allEntries = true)
+    })
     public SubjectDTO createSubject(SubjectDTO subjectDTO) {
         // Check if subject ID already exists
         if (subjectRepository.existsById(subjectDTO.getSubjectId())) {
@@ -83,15 +187,29 @@ public class SubjectService {
                 throw new IllegalArgumentException("Prerequisite subject with ID " + subjectDTO.getPrerequisiteSubjectId() + " does not exist");
             }
         }
+        checkNoPrerequisiteCycle(subjectDTO.getSubjectId(), subjectDTO.getPrerequisiteSubjectId());
         
+        prerequisiteGraph.subjectsChanging();
         Subject subject = convertToEntity(subjectDTO);
         Subject savedSubject = subjectRepository.save(subject);
-        return convertToDTO(savedSubject);
+        SubjectDTO result = convertToDTO(savedSubject);
+        eventPublisher.publishEvent(new SubjectChangedEvent(result.getSubjectId(), result));
+        return result;
     }
     
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBJECTS, key = "#subjectId"),
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_VIEWS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.AVAILABLE_SUBJECTS, allEntries = true)
+    })
     public SubjectDTO updateSubject(String subjectId, SubjectDTO subjectDTO) {
-        Subject existingSubject = subjectRepository.findById(subjectId)
+        // Locked like a waitlist hand-over, so the enrollment read here stays exact while new seats are handed out.
+        // Concurrent edits queue on the lock instead of failing their @Version check, so there is nothing to retry.
+        Subject existingSubject = subjectRepository.findByIdForUpdate(subjectId)
                 .orElseThrow(() -> new IllegalArgumentException("Subject not found with ID: " + subjectId));
+        if (subjectDTO.getVersion() != null && !subjectDTO.getVersion().equals(existingSubject.getVersion())) {
+            throw new StaleVersionException("Subject " + subjectId + " was modified by someone else, reload it and try again");
+        }
         
         // Validate prerequisite if provided
         if (subjectDTO.hasPrerequisite()) {
@@ -99,52 +217,128 @@ public class SubjectService {
                 throw new IllegalArgumentException("Prerequisite subject with ID " + subjectDTO.getPrerequisiteSubjectId() + " does not exist");
             }
         }
+        checkNoPrerequisiteCycle(subjectId, subjectDTO.getPrerequisiteSubjectId());
+        
+        if (!Objects.equals(existingSubject.getPrerequisiteSubjectId(), subjectDTO.getPrerequisiteSubjectId())) {
+            // Before the waitlist is served below, so it is checked against the new prerequisite
+            prerequisiteGraph.subjectsChanging();
+        }
         
         // Update fields
         existingSubject.setSubjectName(subjectDTO.getSubjectName());
         existingSubject.setCredits(subjectDTO.getCredits());
         existingSubject.setInstructorName(subjectDTO.getInstructorName());
         existingSubject.setPrerequisiteSubjectId(subjectDTO.getPrerequisiteSubjectId());
+        boolean capacityRaised = raisesCapacity(existingSubject.getMaxCapacity(), subjectDTO.getMaxCapacity());
         existingSubject.setMaxCapacity(subjectDTO.getMaxCapacity());
         
-        Subject updatedSubject = subjectRepository.save(existingSubject);
-        return convertToDTO(updatedSubject);
+        // Flushed so the conditional seat updates below see the new capacity
+        Subject updatedSubject = subjectRepository.saveAndFlush(existingSubject);
+        SubjectDTO result = convertToDTO(updatedSubject);
+        if (capacityRaised) {
+            // The new seats go to the waitlist first
+            List<Registration> promoted = waitlistService.fillOpenSeats(subjectId);
+            result.setCurrentEnrollment(result.getCurrentEnrollment() + promoted.size());
+            promoted.forEach(registration -> eventPublisher.publishEvent(new RegistrationChangedEvent(
+                    RegistrationService.convertToDTO(registration), RegistrationStatus.WAITLISTED)));
+        }
+        eventPublisher.publishEvent(new SubjectChangedEvent(subjectId, result));
+        return result;
     }
     
+    @Caching(evict = {
+            @CacheEvict(cacheNames = CacheConfig.SUBJECTS, key = "#subjectId"),
+            @CacheEvict(cacheNames = CacheConfig.SUBJECT_VIEWS, allEntries = true),
+            @CacheEvict(cacheNames = CacheConfig.AVAILABLE_SUBJECTS, allEntries = true)
+    })
     public void deleteSubject(String subjectId) {
         if (!subjectRepository.existsById(subjectId)) {
             throw new IllegalArgumentException("Subject not found with ID: " + subjectId);
         }
+        prerequisiteGraph.subjectsChanging();
         subjectRepository.deleteById(subjectId);
+        eventPublisher.publishEvent(new SubjectChangedEvent(subjectId, null));
     }
     
-    public void updateEnrollmentCount(String subjectId) {
-        Subject subject = subjectRepository.findById(subjectId)
-                .orElseThrow(() -> new IllegalArgumentException("Subject not found with ID: " + subjectId));
-        
-        // This method will be implemented in the RegistrationService
-        // For now, we'll keep the current enrollment as is
-        subjectRepository.save(subject);
-    }
-    
+    @Transactional(readOnly = true)
     public boolean isSubjectAvailable(String subjectId) {
         Optional<Subject> subject = subjectRepository.findById(subjectId);
         return subject.isPresent() && subject.get().isAvailable();
     }
     
+    @Transactional(readOnly = true)
     public boolean hasPrerequisite(String subjectId) {
         Optional<Subject> subject = subjectRepository.findById(subjectId);
         return subject.isPresent() && subject.get().hasPrerequisite();
     }
     
+    @Transactional(readOnly = true)
     public String getPrerequisiteSubjectId(String subjectId) {
         Subject subject = subjectRepository.findById(subjectId)
                 .orElseThrow(() -> new IllegalArgumentException("Subject not found with ID: " + subjectId));
         return subject.getPrerequisiteSubjectId();
     }
     
+    // Served from the in-memory aggregate, without touching registrations
+    public Optional<SubjectStatsDTO> getSubjectStats(String subjectId) {
+        return enrollmentStatistics.getSubjectStats(subjectId);
+    }
+    
+    public List<SubjectStatsDTO> getAllSubjectStats() {
+        return enrollmentStatistics.getAllSubjectStats();
+    }
+    
     // Helper methods
-    private SubjectDTO convertToDTO(Subject subject) {
+    private void checkNoPrerequisiteCycle(String subjectId, String prerequisiteSubjectId) {
+        List<String> cycle = prerequisiteGraph.snapshot().findCycle(subjectId, prerequisiteSubjectId);
+        if (!cycle.isEmpty()) {
+            throw new IllegalArgumentException("Prerequisite would create a cycle: " + String.join(" -> ", cycle));
+        }
+    }
+    
+    private List<SubjectDTO> cachedView(String view, Supplier<List<SubjectDTO>> query) {
+        if (readModel.isEnabled()) {
+            return databaseReads.read(query);
+        }
+        Cache views = cacheManager.getCache(CacheConfig.SUBJECT_VIEWS);
+        Cache subjects = cacheManager.getCache(CacheConfig.SUBJECTS);
+        @SuppressWarnings("unchecked")
+        List<String> subjectIds = views.get(view, List.class);
+        if (subjectIds == null) {
+            List<SubjectDTO> rows = databaseReads.read(query);
+            rows.forEach(subject -> subjects.put(subject.getSubjectId(), subject));
+            views.put(view, rows.stream().map(SubjectDTO::getSubjectId).collect(Collectors.toList()));
+            return rows;
+        }
+        Map<String, SubjectDTO> byId = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String subjectId : subjectIds) {
+            SubjectDTO subject = subjects.get(subjectId, SubjectDTO.class);
+            if (subject != null) {
+                byId.put(subjectId, subject);
+            } else {
+                missing.add(subjectId);
+            }
+        }
+        // Subjects evicted since the view was cached come back in one query
+        if (!missing.isEmpty()) {
+            for (SubjectDTO subject : databaseReads.read(() -> subjectRepository.findDTOsByIds(missing))) {
+                subjects.put(subject.getSubjectId(), subject);
+                byId.put(subject.getSubjectId(), subject);
+            }
+        }
+        return subjectIds.stream().map(byId::get).filter(Objects::nonNull).collect(Collectors.toList());
+    }
+    
+    // -1 means unlimited
+    private static boolean raisesCapacity(Integer previous, Integer updated) {
+        if (previous == null || updated == null || previous == -1) {
+            return false;
+        }
+        return updated == -1 || updated > previous;
+    }
+    
+    SubjectDTO convertToDTO(Subject subject) {
         SubjectDTO dto = new SubjectDTO(
                 subject.getSubjectId(),
                 subject.getSubjectName(),
@@ -154,6 +348,7 @@ public class SubjectService {
                 subject.getMaxCapacity()
         );
         dto.setCurrentEnrollment(subject.getCurrentEnrollment());
+        dto.setVersion(subject.getVersion());
         return dto;
     }
     
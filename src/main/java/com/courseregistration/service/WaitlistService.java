@@ -0,0 +1,124 @@
+package com.courseregistration.service;
+
+import com.courseregistration.model.Registration;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.repository.RegistrationRepository;
+import com.courseregistration.repository.SubjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// Waitlisted registrations hold the student's active marker but no seat. A seat freed by a
+// cancellation or completion is handed to the head of the queue in the same transaction, so it
+// never becomes visible to a competing new registration and the seat counter does not move.
+// Joins and hand-overs for a subject serialize on its row lock, which closes the gap between a
+// join seeing the subject full and a concurrent release finding the queue empty.
+@Service
+@Transactional(propagation = Propagation.MANDATORY)
+public class WaitlistService {
+    
+    private static final int PROMOTION_SCAN_SIZE = 50;
+    
+    @Autowired
+    private RegistrationRepository registrationRepository;
+    
+    @Autowired
+    private SubjectRepository subjectRepository;
+    
+    @Autowired
+    private SeatReservationService seatReservationService;
+    
+    @Autowired
+    private PrerequisiteGraph prerequisiteGraph;
+    
+    // Takes a seat if one was freed in the meantime, otherwise queues the student at the tail
+    public Registration join(String studentId, String subjectId) {
+        subjectRepository.findByIdForUpdate(subjectId)
+                .orElseThrow(() -> new IllegalArgumentException("Subject not found with ID: " + subjectId));
+        
+        Registration registration = new Registration(studentId, subjectId);
+        if (!seatReservationService.tryReserveSeat(subjectId)) {
+            Long last = registrationRepository.findLastWaitlistSequence(subjectId);
+            registration.setStatus(RegistrationStatus.WAITLISTED);
+            registration.setWaitlistSequence(last != null ? last + 1 : 1L);
+        }
+        return registration;
+    }
+    
+    // Hands a freed seat to the next eligible waitlisted student, or releases it when there is none.
+    // Students who no longer meet the whole prerequisite chain are skipped but keep their place.
+    public Optional<Registration> promoteOrRelease(String subjectId) {
+        subjectRepository.findByIdForUpdate(subjectId);
+        List<Registration> promoted = new ArrayList<>(1);
+        forEachEligible(subjectId, candidate -> {
+            promoted.add(promote(candidate));
+            return false;
+        });
+        if (promoted.isEmpty()) {
+            seatReservationService.releaseSeat(subjectId);
+            return Optional.empty();
+        }
+        return Optional.of(promoted.get(0));
+    }
+    
+    // Hands seats opened by a capacity increase to eligible waitlisted students in queue order, while
+    // seats remain. The caller has already written the new capacity; the row lock taken here keeps new
+    // registrations from reaching those seats before the queue does.
+    public List<Registration> fillOpenSeats(String subjectId) {
+        subjectRepository.findByIdForUpdate(subjectId);
+        List<Registration> promoted = new ArrayList<>();
+        forEachEligible(subjectId, candidate -> {
+            if (!seatReservationService.tryReserveSeat(subjectId)) {
+                return false;
+            }
+            promoted.add(promote(candidate));
+            return true;
+        });
+        return promoted;
+    }
+    
+    public long getPosition(Registration registration) {
+        return registrationRepository.countWaitlistedAhead(registration.getSubjectId(),
+                registration.getWaitlistSequence()) + 1;
+    }
+    
+    private Registration promote(Registration candidate) {
+        candidate.setStatus(RegistrationStatus.ACTIVE);
+        return registrationRepository.save(candidate);
+    }
+    
+    // Offers the subject's eligible waitlisted students in queue order until the visitor returns false
+    private void forEachEligible(String subjectId, Predicate<Registration> visitor) {
+        PrerequisiteGraph.Snapshot graph = prerequisiteGraph.snapshot();
+        boolean checkPrerequisites = graph.hasPrerequisites(subjectId);
+        
+        long afterSequence = 0L;
+        List<Registration> waitlisted;
+        while (!(waitlisted = registrationRepository.findWaitlistedForUpdate(subjectId, afterSequence,
+                PageRequest.of(0, PROMOTION_SCAN_SIZE))).isEmpty()) {
+            Map<String, BitSet> completed = checkPrerequisites
+                    ? graph.completedSetsByStudent(registrationRepository.findCompletedByStudentIds(
+                            waitlisted.stream().map(Registration::getStudentId).collect(Collectors.toSet())))
+                    : Collections.emptyMap();
+            for (Registration candidate : waitlisted) {
+                boolean eligible = !checkPrerequisites
+                        || graph.isEligible(subjectId, completed.getOrDefault(candidate.getStudentId(), new BitSet()));
+                if (eligible && !visitor.test(candidate)) {
+                    return;
+                }
+            }
+            afterSequence = waitlisted.get(waitlisted.size() - 1).getWaitlistSequence();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package com.courseregistration.stats;
+
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.dto.SubjectStatsDTO;
+import com.courseregistration.event.RegistrationChangedEvent;
+import com.courseregistration.event.StudentChangedEvent;
+import com.courseregistration.event.SubjectChangedEvent;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.repository.RegistrationRepository;
+import com.courseregistration.repository.SubjectRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+// Per-subject registration counts kept in memory from committed RegistrationChangedEvents, so the
+// stats endpoints never scan registrations. Seeded at startup with one GROUP BY; a student delete
+// subtracts the registrations it cascaded away, which its own cancel events have already moved to CANCELLED.
+@Component
+public class EnrollmentStatistics {
+    
+    private static final int WINDOW_MINUTES = 60;
+    
+    // Events apply concurrently under the read lock; the startup rebuild swaps the whole map under the write lock
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile Map<String, SubjectCounters> subjects = new ConcurrentHashMap<>();
+    
+    @Autowired
+    private SubjectRepository subjectRepository;
+    
+    @Autowired
+    private RegistrationRepository registrationRepository;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            Map<String, SubjectCounters> counters = new ConcurrentHashMap<>();
+            for (Object[] row : subjectRepository.findAllCapacities()) {
+                counters.put((String) row[0], new SubjectCounters((String) row[0], (String) row[1], (Integer) row[2]));
+            }
+            for (Object[] row : registrationRepository.countBySubjectAndStatus()) {
+                SubjectCounters subject = counters.get((String) row[0]);
+                if (subject != null) {
+                    subject.counter((RegistrationStatus) row[1]).addAndGet((Long) row[2]);
+                }
+            }
+            LocalDateTime since = LocalDateTime.now().minusMinutes(WINDOW_MINUTES);
+            for (Object[] row : registrationRepository.findRegistrationDatesSince(since)) {
+                SubjectCounters subject = counters.get((String) row[0]);
+                if (subject != null) {
+                    subject.recordRegistration(epochMinute((LocalDateTime) row[1]));
+                }
+            }
+            subjects = counters;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRegistrationChanged(RegistrationChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            SubjectCounters subject = subjects.get(event.getRegistration().getSubjectId());
+            if (subject == null) {
+                return;
+            }
+            if (!event.isNew()) {
+                subject.counter(event.getPreviousStatus()).decrementAndGet();
+            }
+            subject.counter(event.getRegistration().getStatus()).incrementAndGet();
+            if (event.isNew()) {
+                subject.recordRegistration(epochMinute(event.getRegistration().getRegistrationDate()));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubjectChanged(SubjectChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            if (event.isDeleted()) {
+                subjects.remove(event.getSubjectId());
+                return;
+            }
+            SubjectDTO dto = event.getSubject();
+            subjects.computeIfAbsent(dto.getSubjectId(), id -> new SubjectCounters(id, dto.getSubjectName(), dto.getMaxCapacity()))
+                    .describe(dto.getSubjectName(), dto.getMaxCapacity());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        lock.readLock().lock();
+        try {
+            for (RegistrationDTO registration : event.getRemovedRegistrations()) {
+                SubjectCounters subject = subjects.get(registration.getSubjectId());
+                if (subject != null) {
+                    subject.counter(registration.getStatus()).decrementAndGet();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public Optional<SubjectStatsDTO> getSubjectStats(String subjectId) {
+        SubjectCounters subject = subjects.get(subjectId);
+        return subject != null ? Optional.of(subject.toDTO(currentMinute())) : Optional.empty();
+    }
+    
+    public List<SubjectStatsDTO> getAllSubjectStats() {
+        long now = currentMinute();
+        return subjects.values().stream()
+                .map(subject -> subject.toDTO(now))
+                .sorted((a, b) -> a.getSubjectId().compareTo(b.getSubjectId()))
+                .collect(Collectors.toList());
+    }
+    
+    private static long currentMinute() {
+        return TimeUnit.MILLISECONDS.toMinutes(System.currentTimeMillis());
+    }
+    
+    private static long epochMinute(LocalDateTime dateTime) {
+        return dateTime != null
+                ? TimeUnit.SECONDS.toMinutes(dateTime.atZone(ZoneId.systemDefault()).toEpochSecond())
+                : currentMinute();
+    }
+    
+    private static final class SubjectCounters {
+        
+        private final String subjectId;
+        private volatile String subjectName;
+        private volatile Integer maxCapacity;
+        private final AtomicLong active = new AtomicLong();
+        private final AtomicLong waitlisted = new AtomicLong();
+        private final AtomicLong cancelled = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        
+        // Ring of per-minute buckets; a bucket is reused once its minute falls out of the window
+        private final long[] bucketMinutes = new long[WINDOW_MINUTES];
+        private final long[] bucketCounts = new long[WINDOW_MINUTES];
+        
+        SubjectCounters(String subjectId, String subjectName, Integer maxCapacity) {
+            this.subjectId = subjectId;
+            this.subjectName = subjectName;
+            this.maxCapacity = maxCapacity;
+        }
+        
+        void describe(String subjectName, Integer maxCapacity) {
+            this.subjectName = subjectName;
+            this.maxCapacity = maxCapacity;
+        }
+        
+        AtomicLong counter(RegistrationStatus status) {
+            switch (status) {
+                case ACTIVE:
+                    return active;
+                case WAITLISTED:
+                    return waitlisted;
+                case CANCELLED:
+                    return cancelled;
+                default:
+                    return completed;
+            }
+        }
+        
+        synchronized void recordRegistration(long minute) {
+            int bucket = (int) (minute % WINDOW_MINUTES);
+            if (bucketMinutes[bucket] != minute) {
+                bucketMinutes[bucket] = minute;
+                bucketCounts[bucket] = 0;
+            }
+            bucketCounts[bucket]++;
+        }
+        
+        synchronized long registrationsSince(long fromMinute) {
+            long total = 0;
+            for (int bucket = 0; bucket < WINDOW_MINUTES; bucket++) {
+                if (bucketMinutes[bucket] > fromMinute) {
+                    total += bucketCounts[bucket];
+                }
+            }
+            return total;
+        }
+        
+        SubjectStatsDTO toDTO(long now) {
+            Integer capacity = maxCapacity;
+            SubjectStatsDTO dto = new SubjectStatsDTO(subjectId, subjectName, capacity);
+            dto.setActiveRegistrations(active.get());
+            dto.setWaitlistedRegistrations(waitlisted.get());
+            dto.setCancelledRegistrations(cancelled.get());
+            dto.setCompletedRegistrations(completed.get());
+            if (capacity != null && capacity > 0) {
+                dto.setFillRate((double) active.get() / capacity);
+            }
+            dto.setRegistrationsLastHour(registrationsSince(now - WINDOW_MINUTES));
+            return dto;
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.courseregistration.web;
+
+import com.courseregistration.event.RegistrationChangedEvent;
+import com.courseregistration.event.StudentChangedEvent;
+import com.courseregistration.event.SubjectChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Version counters behind the ETags of the catalog and roster endpoints. Counters are bumped after
+// commit by the change events, so an ETag is a couple of field reads instead of a hash of the body,
+// and a matching If-None-Match is answered with 304 before any query runs. Controllers must read the
+// ETag before loading the data: a write landing in between then only costs the client one extra 200.
+// The boot time is part of every ETag, so counters restarting at zero never match an older tag.
+@Component
+public class ResourceVersions {
+    
+    private final long epoch = System.currentTimeMillis();
+    
+    // How long a shared cache such as a reverse proxy may serve catalog reads without revalidating
+    @Value("${app.http-cache.catalog-max-age:5s}")
+    private Duration catalogMaxAge;
+    
+    // Subjects and their seat counts
+    private final AtomicLong catalog = new AtomicLong();
+    
+    // Subject and student names, which are embedded in registration responses
+    private final AtomicLong names = new AtomicLong();
+    
+    // Registrations per student; a student without an entry is at version 0
+    private final Map<String, AtomicLong> students = new ConcurrentHashMap<>();
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRegistrationChanged(RegistrationChangedEvent event) {
+        catalog.incrementAndGet();
+        students.computeIfAbsent(event.getRegistration().getStudentId(), key -> new AtomicLong()).incrementAndGet();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubjectChanged(SubjectChangedEvent event) {
+        catalog.incrementAndGet();
+        names.incrementAndGet();
+    }
+    
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onStudentChanged(StudentChangedEvent event) {
+        names.incrementAndGet();
+        // Deleting a student also removes their registrations
+        if (event.isDeleted()) {
+            catalog.incrementAndGet();
+            students.computeIfAbsent(event.getStudentId(), key -> new AtomicLong()).incrementAndGet();
+        }
+    }
+    
+    public String catalogETag() {
+        return "\"catalog-" + epoch + "-" + catalog.get() + "\"";
+    }
+    
+    public String studentRegistrationsETag(String studentId) {
+        AtomicLong version = students.get(studentId);
+        return "\"student-" + epoch + "-" + names.get() + "-" + (version != null ? version.get() : 0L) + "\"";
+    }
+    
+    public CacheControl catalogCacheControl() {
+        return CacheControl.maxAge(catalogMaxAge).cachePublic();
+    }
+    
+    // Rosters are per student, so only the client may keep them, and it revalidates every time
+    public CacheControl studentRegistrationsCacheControl() {
+        return CacheControl.noCache().cachePrivate();
+    }
+    
+    // True when the client's copy is current; the response is then already a 304 carrying the ETag and Cache-Control
+    public static boolean notModified(WebRequest request, String eTag, CacheControl cacheControl) {
+        if (!request.checkNotModified(eTag)) {
+            return false;
+        }
+        HttpServletResponse response = ((ServletWebRequest) request).getResponse();
+        if (response != null) {
+            response.setHeader("Cache-Control", cacheControl.getHeaderValue());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,49 @@
+package com.courseregistration.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Rows written before active_marker existed: current ones get the marker, one per student and subject
+@SpringBootTest
+@ActiveProfiles("test")
+class SchemaUpgradeTest {
+    
+    private static final String INSERT = "INSERT INTO registrations (id, student_id, subject_id, status, version) " +
+            "VALUES (?, ?, ?, ?, 0)";
+    
+    @Autowired
+    private SchemaUpgrade schemaUpgrade;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @AfterEach
+    void removeRows() {
+        jdbcTemplate.update("DELETE FROM registrations WHERE id BETWEEN 900001 AND 900004");
+    }
+    
+    @Test
+    void backfillMarksEarliestCurrentRegistrationPerPair() {
+        jdbcTemplate.update(INSERT, 900001L, "69000002", "90690001", "ACTIVE");
+        jdbcTemplate.update(INSERT, 900002L, "69000002", "90690001", "WAITLISTED");
+        jdbcTemplate.update(INSERT, 900003L, "69000003", "90690001", "CANCELLED");
+        jdbcTemplate.update(INSERT, 900004L, "69000003", "90690002", "WAITLISTED");
+        
+        schemaUpgrade.backfillActiveMarker();
+        
+        assertThat(marker(900001L)).isTrue();
+        assertThat(marker(900002L)).isNull();
+        assertThat(marker(900003L)).isNull();
+        assertThat(marker(900004L)).isTrue();
+    }
+    
+    private Boolean marker(Long id) {
+        return jdbcTemplate.queryForObject("SELECT active_marker FROM registrations WHERE id = ?", Boolean.class, id);
+    }
+}
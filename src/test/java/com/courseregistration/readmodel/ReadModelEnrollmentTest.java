@@ -0,0 +1,92 @@
+package com.courseregistration.readmodel;
+
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.RegistrationRequestDTO;
+import com.courseregistration.dto.StudentDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.event.SeatsChangedEvent;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.repository.SubjectRepository;
+import com.courseregistration.service.RegistrationService;
+import com.courseregistration.service.StudentService;
+import com.courseregistration.service.SubjectService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The projection and the database must report the same enrollment after every kind of seat change
+@SpringBootTest
+@ActiveProfiles("test")
+class ReadModelEnrollmentTest {
+    
+    private static final String SUBJECT_ID = "05508003";
+    
+    @Autowired
+    private ReadModel readModel;
+    
+    @Autowired
+    private SubjectRepository subjectRepository;
+    
+    @Autowired
+    private SubjectService subjectService;
+    
+    @Autowired
+    private StudentService studentService;
+    
+    @Autowired
+    private RegistrationService registrationService;
+    
+    @Test
+    void enrollmentMatchesDatabaseAfterRegisterCancelAndDelete() {
+        subjectService.createSubject(new SubjectDTO(SUBJECT_ID, "Two Seats", 3, "Dr. Pair", null, 2));
+        for (int i = 1; i <= 3; i++) {
+            studentService.createStudent(new StudentDTO(studentId(i), "Ms.", "Reader", "No" + i,
+                    LocalDate.of(2005, 1, 1), "Model High School", "reader" + i + "@example.com"));
+        }
+        
+        RegistrationDTO first = registrationService.registerStudent(new RegistrationRequestDTO(studentId(1), SUBJECT_ID));
+        registrationService.registerStudent(new RegistrationRequestDTO(studentId(2), SUBJECT_ID));
+        RegistrationDTO third = registrationService.registerStudent(new RegistrationRequestDTO(studentId(3), SUBJECT_ID));
+        assertThat(third.getStatus()).isEqualTo(RegistrationStatus.WAITLISTED);
+        assertEnrollment(2);
+        
+        // The freed seat goes to the waitlisted student
+        registrationService.cancelRegistration(first.getId());
+        assertEnrollment(2);
+        
+        // Deleting students releases their seats, with nobody left to promote
+        studentService.deleteStudent(studentId(2));
+        assertEnrollment(1);
+        studentService.deleteStudent(studentId(3));
+        assertEnrollment(0);
+    }
+    
+    @Test
+    void olderSeatCountIsNotAppliedOverNewerOne() {
+        String subjectId = "05508005";
+        subjectService.createSubject(new SubjectDTO(subjectId, "Out Of Order", 3, "Dr. Late", null, 10));
+        
+        // Two committed seat updates whose events are applied in the opposite order
+        readModel.onSeatsChanged(new SeatsChangedEvent(subjectId, 2, 2L));
+        readModel.onSeatsChanged(new SeatsChangedEvent(subjectId, 1, 1L));
+        
+        assertThat(readModel.getSubject(subjectId).get().getCurrentEnrollment()).isEqualTo(2);
+    }
+    
+    private void assertEnrollment(int expected) {
+        assertThat(readModel.isServing()).isTrue();
+        SubjectDTO projected = readModel.getSubject(SUBJECT_ID).get();
+        SubjectDTO stored = subjectRepository.findDTOById(SUBJECT_ID).get();
+        assertThat(stored.getCurrentEnrollment()).isEqualTo(expected);
+        assertThat(projected.getCurrentEnrollment()).isEqualTo(stored.getCurrentEnrollment());
+    }
+    
+    private static String studentId(int i) {
+        return String.format("6982%04d", i);
+    }
+}
@@ -0,0 +1,42 @@
+package com.courseregistration.repository;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.test.context.TestPropertySource;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.Locale;
+
+// Same plan assertions against PostgreSQL. Runs only when pointed at a scratch database, since the
+// schema is created and dropped there:
+//   mvn test -Dtest.postgres.url=jdbc:postgresql://localhost:5432/scratch -Dtest.postgres.username=... -Dtest.postgres.password=...
+@EnabledIfSystemProperty(named = "test.postgres.url", matches = ".+")
+@TestPropertySource(properties = {
+        "spring.datasource.url=${test.postgres.url}",
+        "spring.datasource.username=${test.postgres.username:course_user}",
+        "spring.datasource.password=${test.postgres.password:course_password}",
+        "spring.datasource.driver-class-name=org.postgresql.Driver",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.PostgreSQLDialect"
+})
+class PostgresRegistrationQueryPlanTest extends RegistrationQueryPlanTest {
+    
+    // A near-empty table is cheapest to scan, so rule sequential scans out to see which index the planner can use
+    @Override
+    protected String plan(String sql) {
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("SET enable_seqscan = off");
+                StringBuilder plan = new StringBuilder();
+                try (ResultSet rows = statement.executeQuery("EXPLAIN " + sql)) {
+                    while (rows.next()) {
+                        plan.append(rows.getString(1)).append('\n');
+                    }
+                } finally {
+                    statement.execute("RESET enable_seqscan");
+                }
+                return plan.toString().toLowerCase(Locale.ROOT);
+            }
+        });
+    }
+}
@@ -0,0 +1,52 @@
+package com.courseregistration.repository;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Locale;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The hot registration lookups must be answered from the composite indexes declared on Registration.
+// The statements mirror what Hibernate generates for the RegistrationRepository queries.
+@SpringBootTest
+@ActiveProfiles("test")
+class RegistrationQueryPlanTest {
+    
+    @Autowired
+    protected JdbcTemplate jdbcTemplate;
+    
+    @Test
+    void registrationsOfStudentByStatusUseStudentIndex() {
+        assertThat(plan("SELECT id FROM registrations WHERE student_id = '69000001' AND status = 'ACTIVE'"))
+                .containsAnyOf("idx_registrations_student_status", "idx_registrations_student_subject_status");
+    }
+    
+    @Test
+    void registrationsOfSubjectByStatusUseSubjectIndex() {
+        assertThat(plan("SELECT COUNT(*) FROM registrations WHERE subject_id = '05500001' AND status = 'ACTIVE'"))
+                .containsAnyOf("idx_registrations_subject_status", "idx_registrations_waitlist");
+    }
+    
+    @Test
+    void duplicateCheckUsesStudentSubjectIndex() {
+        assertThat(plan("SELECT id FROM registrations WHERE student_id = '69000001' AND subject_id = '05500001' " +
+                "AND status = 'ACTIVE'"))
+                .containsAnyOf("idx_registrations_student_subject_status", "uk_registrations_active");
+    }
+    
+    @Test
+    void waitlistScanUsesWaitlistIndex() {
+        assertThat(plan("SELECT id FROM registrations WHERE subject_id = '05500001' AND status = 'WAITLISTED' " +
+                "AND waitlist_sequence > 0 ORDER BY waitlist_sequence"))
+                .contains("idx_registrations_waitlist");
+    }
+    
+    // Lower-cased so index names compare the same on H2, which prints them upper-case
+    protected String plan(String sql) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class)).toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,45 @@
+package com.courseregistration.search;
+
+import com.courseregistration.event.StudentChangedEvent;
+import com.courseregistration.model.Student;
+import com.courseregistration.repository.StudentRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+// Events committed while a rebuild is loading must win over the rows the load read
+@ExtendWith(MockitoExtension.class)
+class StudentSearchIndexTest {
+    
+    @Mock
+    private StudentRepository studentRepository;
+    
+    @InjectMocks
+    private StudentSearchIndex index;
+    
+    @Test
+    void deleteDuringRebuildIsNotUndoneByLoadedRow() {
+        Student kept = new Student("69000001", "Mr.", "John", "Doe", LocalDate.of(2005, 3, 15),
+                "Springfield High School", "john.doe@email.com");
+        Student deleted = new Student("69000002", "Ms.", "Jane", "Doe", LocalDate.of(2006, 7, 22),
+                "Springfield High School", "jane.doe@email.com");
+        when(studentRepository.findAll()).thenAnswer(invocation -> {
+            // Deleted and committed after the load read the row
+            index.onStudentChanged(new StudentChangedEvent("69000002", null));
+            return Arrays.asList(kept, deleted);
+        });
+        
+        index.rebuild();
+        
+        assertThat(index.isReady()).isTrue();
+        assertThat(index.search("doe", 0, 10).getKeys()).containsExactly("69000001");
+    }
+}
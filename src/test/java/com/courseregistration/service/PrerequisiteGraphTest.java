@@ -0,0 +1,41 @@
+package com.courseregistration.service;
+
+import com.courseregistration.dto.SubjectDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A prerequisite change is visible to the rest of its own transaction and to every reader after it commits
+@SpringBootTest
+@ActiveProfiles("test")
+class PrerequisiteGraphTest {
+    
+    private static final String SUBJECT_ID = "90690003";
+    
+    @Autowired
+    private PrerequisiteGraph prerequisiteGraph;
+    
+    @Autowired
+    private SubjectService subjectService;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    @Test
+    void prerequisiteChangeIsSeenInsideAndAfterItsTransaction() {
+        assertThat(prerequisiteGraph.snapshot().hasPrerequisites(SUBJECT_ID)).isFalse();
+        
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            subjectService.updateSubject(SUBJECT_ID,
+                    new SubjectDTO(SUBJECT_ID, "Art and Design", 2, "Ms. Maria Garcia", "90690002", 20));
+            assertThat(prerequisiteGraph.snapshot().hasPrerequisites(SUBJECT_ID)).isTrue();
+        });
+        
+        assertThat(prerequisiteGraph.snapshot().hasPrerequisites(SUBJECT_ID)).isTrue();
+    }
+}
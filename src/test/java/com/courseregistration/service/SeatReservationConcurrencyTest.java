@@ -0,0 +1,100 @@
+package com.courseregistration.service;
+
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.RegistrationRequestDTO;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.model.Student;
+import com.courseregistration.model.Subject;
+import com.courseregistration.repository.RegistrationRepository;
+import com.courseregistration.repository.StudentRepository;
+import com.courseregistration.repository.SubjectRepository;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Many students race for a few seats; the conditional UPDATE must hand out exactly the capacity and
+// waitlist everyone else, with the seat counter matching the active rows
+@SpringBootTest
+@ActiveProfiles("test")
+class SeatReservationConcurrencyTest {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SeatReservationConcurrencyTest.class);
+    
+    private static final String SUBJECT_ID = "05508001";
+    private static final int CAPACITY = 5;
+    private static final int STUDENTS = 64;
+    private static final int THREADS = 16;
+    
+    @Autowired
+    private RegistrationService registrationService;
+    
+    @Autowired
+    private StudentRepository studentRepository;
+    
+    @Autowired
+    private SubjectRepository subjectRepository;
+    
+    @Autowired
+    private RegistrationRepository registrationRepository;
+    
+    @Test
+    void concurrentRegistrationsNeverOversubscribe() throws Exception {
+        subjectRepository.save(new Subject(SUBJECT_ID, "Seat Race", 3, "Dr. Race", null, CAPACITY));
+        List<String> studentIds = new ArrayList<>();
+        for (int i = 0; i < STUDENTS; i++) {
+            String studentId = String.format("6981%04d", i);
+            studentRepository.save(new Student(studentId, "Mr.", "Racer", "No" + i, LocalDate.of(2005, 1, 1),
+                    "Race High School", "racer" + i + "@example.com"));
+            studentIds.add(studentId);
+        }
+        
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<RegistrationDTO>> results = new ArrayList<>();
+        try {
+            for (String studentId : studentIds) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    return registrationService.registerStudent(new RegistrationRequestDTO(studentId, SUBJECT_ID));
+                }));
+            }
+            long started = System.nanoTime();
+            start.countDown();
+            int active = 0;
+            int waitlisted = 0;
+            for (Future<RegistrationDTO> result : results) {
+                RegistrationStatus status = result.get(60, TimeUnit.SECONDS).getStatus();
+                if (status == RegistrationStatus.ACTIVE) {
+                    active++;
+                } else if (status == RegistrationStatus.WAITLISTED) {
+                    waitlisted++;
+                }
+            }
+            long elapsedNanos = System.nanoTime() - started;
+            logger.info("{} registrations on {} threads in {} ms ({} per second)", STUDENTS, THREADS,
+                    TimeUnit.NANOSECONDS.toMillis(elapsedNanos), STUDENTS * TimeUnit.SECONDS.toNanos(1) / elapsedNanos);
+            
+            assertThat(active).isEqualTo(CAPACITY);
+            assertThat(waitlisted).isEqualTo(STUDENTS - CAPACITY);
+        } finally {
+            executor.shutdownNow();
+        }
+        
+        assertThat(registrationRepository.countActiveRegistrationsBySubjectId(SUBJECT_ID)).isEqualTo(CAPACITY);
+        assertThat(subjectRepository.findById(SUBJECT_ID).get().getCurrentEnrollment()).isEqualTo(CAPACITY);
+    }
+}
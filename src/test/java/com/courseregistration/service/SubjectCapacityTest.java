@@ -0,0 +1,52 @@
+package com.courseregistration.service;
+
+import com.courseregistration.dto.RegistrationRequestDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.model.RegistrationStatus;
+import com.courseregistration.repository.RegistrationRepository;
+import com.courseregistration.repository.SubjectRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Seats added by raising the capacity go to the waitlist in queue order before anyone new can take them
+@SpringBootTest
+@ActiveProfiles("test")
+class SubjectCapacityTest {
+    
+    private static final String SUBJECT_ID = "05508002";
+    
+    @Autowired
+    private SubjectService subjectService;
+    
+    @Autowired
+    private RegistrationService registrationService;
+    
+    @Autowired
+    private SubjectRepository subjectRepository;
+    
+    @Autowired
+    private RegistrationRepository registrationRepository;
+    
+    @Test
+    void raisingCapacityPromotesWaitlistedStudents() {
+        subjectService.createSubject(new SubjectDTO(SUBJECT_ID, "Small Room", 2, "Dr. Room", null, 1));
+        for (String studentId : new String[] {"69000001", "69000002", "69000003", "69000004"}) {
+            registrationService.registerStudent(new RegistrationRequestDTO(studentId, SUBJECT_ID));
+        }
+        
+        SubjectDTO updated = subjectService.updateSubject(SUBJECT_ID,
+                new SubjectDTO(SUBJECT_ID, "Small Room", 2, "Dr. Room", null, 3));
+        
+        assertThat(updated.getCurrentEnrollment()).isEqualTo(3);
+        assertThat(subjectRepository.findById(SUBJECT_ID).get().getCurrentEnrollment()).isEqualTo(3);
+        assertThat(registrationRepository.countActiveRegistrationsBySubjectId(SUBJECT_ID)).isEqualTo(3);
+        assertThat(registrationRepository.findByStudentIdAndSubjectIdAndStatus("69000003", SUBJECT_ID,
+                RegistrationStatus.ACTIVE)).isPresent();
+        assertThat(registrationRepository.findByStudentIdAndSubjectIdAndStatus("69000004", SUBJECT_ID,
+                RegistrationStatus.WAITLISTED)).isPresent();
+    }
+}
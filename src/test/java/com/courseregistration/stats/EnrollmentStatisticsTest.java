@@ -0,0 +1,72 @@
+package com.courseregistration.stats;
+
+import com.courseregistration.dto.RegistrationDTO;
+import com.courseregistration.dto.RegistrationRequestDTO;
+import com.courseregistration.dto.StudentDTO;
+import com.courseregistration.dto.SubjectDTO;
+import com.courseregistration.dto.SubjectStatsDTO;
+import com.courseregistration.service.RegistrationService;
+import com.courseregistration.service.StudentService;
+import com.courseregistration.service.SubjectService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// A student delete takes every registration it cascades away out of the counters, whatever its status
+@SpringBootTest
+@ActiveProfiles("test")
+class EnrollmentStatisticsTest {
+    
+    private static final String SUBJECT_ID = "05508004";
+    
+    @Autowired
+    private EnrollmentStatistics enrollmentStatistics;
+    
+    @Autowired
+    private SubjectService subjectService;
+    
+    @Autowired
+    private StudentService studentService;
+    
+    @Autowired
+    private RegistrationService registrationService;
+    
+    @Test
+    void studentDeleteSubtractsCascadedRegistrations() {
+        subjectService.createSubject(new SubjectDTO(SUBJECT_ID, "Counted Seats", 3, "Dr. Tally", null, 1));
+        for (int i = 1; i <= 2; i++) {
+            studentService.createStudent(new StudentDTO(studentId(i), "Mr.", "Counted", "No" + i,
+                    LocalDate.of(2005, 1, 1), "Stats High School", "counted" + i + "@example.com"));
+        }
+        
+        // The first student completes the subject, then waitlists for a retake and cancels; the second takes the freed seat
+        RegistrationDTO completed = registrationService.registerStudent(new RegistrationRequestDTO(studentId(1), SUBJECT_ID));
+        registrationService.registerStudent(new RegistrationRequestDTO(studentId(2), SUBJECT_ID));
+        registrationService.completeRegistration(completed.getId());
+        RegistrationDTO retake = registrationService.registerStudent(new RegistrationRequestDTO(studentId(1), SUBJECT_ID));
+        registrationService.cancelRegistration(retake.getId());
+        
+        studentService.deleteStudent(studentId(1));
+        
+        SubjectStatsDTO stats = enrollmentStatistics.getSubjectStats(SUBJECT_ID).get();
+        assertThat(stats.getActiveRegistrations()).isEqualTo(1);
+        assertThat(stats.getWaitlistedRegistrations()).isZero();
+        assertThat(stats.getCancelledRegistrations()).isZero();
+        assertThat(stats.getCompletedRegistrations()).isZero();
+        
+        studentService.deleteStudent(studentId(2));
+        
+        stats = enrollmentStatistics.getSubjectStats(SUBJECT_ID).get();
+        assertThat(stats.getActiveRegistrations()).isZero();
+        assertThat(stats.getCancelledRegistrations()).isZero();
+    }
+    
+    private static String studentId(int i) {
+        return String.format("6983%04d", i);
+    }
+}